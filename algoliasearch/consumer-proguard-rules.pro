@@ -0,0 +1,6 @@
+# ProGuard rules applied to applications using this library.
+
+# The Android platform adapter is looked up by name by the platform-independent core.
+-keep class com.algolia.search.saas.AndroidPlatform {
+    <init>();
+}
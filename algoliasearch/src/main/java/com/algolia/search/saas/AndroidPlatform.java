@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.algolia.search.saas.helpers.HandlerExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The Android {@link Platform}: completion handlers and scheduled tasks run on the main thread.
+ * <p>
+ * This class is looked up by name, so that the core does not depend on the Android framework.
+ * </p>
+ */
+class AndroidPlatform extends Platform {
+    @Override
+    @NonNull AbstractClient.LibraryVersion getSystemVersion() {
+        return new AbstractClient.LibraryVersion("Android", Build.VERSION.RELEASE);
+    }
+
+    @Override
+    @NonNull Executor newCompletionExecutor() {
+        return new HandlerExecutor(new Handler(Looper.getMainLooper()));
+    }
+
+    @Override
+    @NonNull Scheduler newScheduler() {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        return new Scheduler() {
+            @Override
+            public void schedule(@NonNull Runnable task, long delay) {
+                handler.postDelayed(task, delay);
+            }
+
+            @Override
+            public void cancel(@NonNull Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        };
+    }
+
+    @Override
+    void logError(@NonNull String tag, @NonNull String message, @NonNull Throwable throwable) {
+        Log.e(tag, message, throwable);
+    }
+}
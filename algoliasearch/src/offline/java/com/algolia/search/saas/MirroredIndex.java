@@ -818,19 +818,20 @@ public class MirroredIndex extends Index
      * Search the online API, falling back to the local mirror if enabled in case of error.
      *
      * @param query Search query.
+     * @param requestOptions Options for the online request. May be null to use the client's settings.
      * @param completionHandler The listener that will be notified of the request's outcome.
      * @return A cancellable request.
      */
     @Override
-    public Request searchAsync(@NonNull Query query, @NonNull CompletionHandler completionHandler) {
+    public Request searchAsync(@NonNull Query query, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         // A non-mirrored index behaves exactly as an online index.
         if (!mirrored) {
-            return super.searchAsync(query, completionHandler);
+            return super.searchAsync(query, requestOptions, completionHandler);
         }
         // A mirrored index launches a mixed offline/online request.
         else {
             final Query queryCopy = new Query(query);
-            return new OnlineOfflineSearchRequest(queryCopy, completionHandler).start();
+            return new OnlineOfflineSearchRequest(queryCopy, requestOptions, completionHandler).start();
         }
     }
 
@@ -988,15 +989,17 @@ public class MirroredIndex extends Index
 
     private class OnlineOfflineSearchRequest extends OnlineOfflineRequest {
         private final Query query;
+        private final RequestOptions requestOptions;
 
-        public OnlineOfflineSearchRequest(@NonNull Query query, @NonNull CompletionHandler completionHandler) {
+        public OnlineOfflineSearchRequest(@NonNull Query query, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
             super(completionHandler);
             this.query = query;
+            this.requestOptions = requestOptions;
         }
 
         @Override
         protected Request startOnlineRequest(CompletionHandler completionHandler) {
-            return searchOnlineAsync(query, completionHandler);
+            return searchOnlineAsync(query, requestOptions, completionHandler);
         }
 
         @Override
@@ -1013,8 +1016,20 @@ public class MirroredIndex extends Index
      * @return A cancellable request.
      */
     public Request searchOnlineAsync(@NonNull Query query, @NonNull final CompletionHandler completionHandler) {
+        return searchOnlineAsync(query, null, completionHandler);
+    }
+
+    /**
+     * Search the online API, with specific options.
+     *
+     * @param query Search query.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request searchOnlineAsync(@NonNull Query query, @Nullable RequestOptions requestOptions, @NonNull final CompletionHandler completionHandler) {
         final Query queryCopy = new Query(query);
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
@@ -1067,10 +1082,10 @@ public class MirroredIndex extends Index
     // ----------------------------------------------------------------------
 
     @Override
-    public Request multipleQueriesAsync(@NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, @NonNull CompletionHandler completionHandler) {
+    public Request multipleQueriesAsync(@NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         // A non-mirrored index behaves exactly as an online index.
         if (!mirrored) {
-            return super.multipleQueriesAsync(queries, strategy, completionHandler);
+            return super.multipleQueriesAsync(queries, strategy, requestOptions, completionHandler);
         }
         // A mirrored index launches a mixed offline/online request.
         else {
@@ -1078,7 +1093,7 @@ public class MirroredIndex extends Index
             for (Query query: queries) {
                 queriesCopy.add(new Query(query));
             }
-            return new OnlineOfflineMultipleQueriesRequest(queriesCopy, strategy, completionHandler).start();
+            return new OnlineOfflineMultipleQueriesRequest(queriesCopy, strategy, requestOptions, completionHandler).start();
         }
     }
 
@@ -1091,11 +1106,24 @@ public class MirroredIndex extends Index
      * @return A cancellable request.
      */
     public Request multipleQueriesOnlineAsync(@NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, final @NonNull CompletionHandler completionHandler) {
+        return multipleQueriesOnlineAsync(queries, strategy, null, completionHandler);
+    }
+
+    /**
+     * Run multiple queries on this index, explicitly targeting the online API, with specific options.
+     *
+     * @param queries Queries to run.
+     * @param strategy Strategy to use.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request multipleQueriesOnlineAsync(@NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, @Nullable RequestOptions requestOptions, final @NonNull CompletionHandler completionHandler) {
         final List<Query> queriesCopy = new ArrayList<>(queries.size());
         for (Query query: queries) {
             queriesCopy.add(new Query(query));
         }
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
@@ -1133,16 +1161,18 @@ public class MirroredIndex extends Index
     private class OnlineOfflineMultipleQueriesRequest extends OnlineOfflineRequest {
         private final List<Query> queries;
         private final Client.MultipleQueriesStrategy strategy;
+        private final RequestOptions requestOptions;
 
-        public OnlineOfflineMultipleQueriesRequest(@NonNull List<Query> queries, Client.MultipleQueriesStrategy strategy, @NonNull CompletionHandler completionHandler) {
+        public OnlineOfflineMultipleQueriesRequest(@NonNull List<Query> queries, Client.MultipleQueriesStrategy strategy, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
             super(completionHandler);
             this.queries = queries;
             this.strategy = strategy;
+            this.requestOptions = requestOptions;
         }
 
         @Override
         protected Request startOnlineRequest(CompletionHandler completionHandler) {
-            return multipleQueriesOnlineAsync(queries, strategy, completionHandler);
+            return multipleQueriesOnlineAsync(queries, strategy, requestOptions, completionHandler);
         }
 
         @Override
@@ -1250,31 +1280,34 @@ public class MirroredIndex extends Index
      * @param objectID Identifier of the object to retrieve.
      * @param attributesToRetrieve Attributes to retrieve. If `null` or if at least one item is `*`, all retrievable
      *                             attributes will be retrieved.
+     * @param requestOptions Options for the online request. May be null to use the client's settings.
      * @param completionHandler The listener that will be notified of the request's outcome.
      * @return A cancellable request.
      */
     @Override
-    public Request getObjectAsync(final @NonNull String objectID, final @Nullable List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
+    public Request getObjectAsync(final @NonNull String objectID, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         if (!mirrored) {
-            return super.getObjectAsync(objectID, attributesToRetrieve, completionHandler);
+            return super.getObjectAsync(objectID, attributesToRetrieve, requestOptions, completionHandler);
         } else {
-            return new OnlineOfflineGetObjectRequest(objectID, attributesToRetrieve, completionHandler).start();
+            return new OnlineOfflineGetObjectRequest(objectID, attributesToRetrieve, requestOptions, completionHandler).start();
         }
     }
 
     private class OnlineOfflineGetObjectRequest extends OnlineOfflineRequest {
         private final String objectID;
         private final List<String> attributesToRetrieve;
+        private final RequestOptions requestOptions;
 
-        public OnlineOfflineGetObjectRequest(@NonNull String objectID, final @Nullable List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
+        public OnlineOfflineGetObjectRequest(@NonNull String objectID, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
             super(completionHandler);
             this.objectID = objectID;
             this.attributesToRetrieve = attributesToRetrieve;
+            this.requestOptions = requestOptions;
         }
 
         @Override
         protected Request startOnlineRequest(CompletionHandler completionHandler) {
-            return getObjectOnlineAsync(objectID, attributesToRetrieve, completionHandler);
+            return getObjectOnlineAsync(objectID, attributesToRetrieve, requestOptions, completionHandler);
         }
 
         @Override
@@ -1293,8 +1326,22 @@ public class MirroredIndex extends Index
      * @return A cancellable request.
      */
     public Request getObjectOnlineAsync(@NonNull final String objectID, final @Nullable List<String> attributesToRetrieve, @NonNull final CompletionHandler completionHandler) {
+        return getObjectOnlineAsync(objectID, attributesToRetrieve, null, completionHandler);
+    }
+
+    /**
+     * Get an individual object, explicitly targeting the online API, not the offline mirror, with specific options.
+     *
+     * @param objectID Identifier of the object to retrieve.
+     * @param attributesToRetrieve Attributes to retrieve. If `null` or if at least one item is `*`, all retrievable
+     *                             attributes will be retrieved.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request getObjectOnlineAsync(@NonNull final String objectID, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull final CompletionHandler completionHandler) {
         // TODO: Cannot perform origin tagging because it could conflict with the object's attributes
-        return super.getObjectAsync(objectID, attributesToRetrieve, completionHandler);
+        return super.getObjectAsync(objectID, attributesToRetrieve, requestOptions, completionHandler);
     }
 
     /**
@@ -1361,31 +1408,34 @@ public class MirroredIndex extends Index
      * @param objectIDs Identifiers of objects to retrieve.
      * @param attributesToRetrieve Attributes to retrieve. If `null` or if at least one item is `*`, all retrievable
      *                             attributes will be retrieved.
+     * @param requestOptions Options for the online request. May be null to use the client's settings.
      * @param completionHandler The listener that will be notified of the request's outcome.
      * @return A cancellable request.
      */
     @Override
-    public Request getObjectsAsync(final @NonNull List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
+    public Request getObjectsAsync(final @NonNull List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         if (!mirrored) {
-            return super.getObjectsAsync(objectIDs, attributesToRetrieve, completionHandler);
+            return super.getObjectsAsync(objectIDs, attributesToRetrieve, requestOptions, completionHandler);
         } else {
-            return new OnlineOfflineGetObjectsRequest(objectIDs, attributesToRetrieve, completionHandler).start();
+            return new OnlineOfflineGetObjectsRequest(objectIDs, attributesToRetrieve, requestOptions, completionHandler).start();
         }
     }
 
     private class OnlineOfflineGetObjectsRequest extends OnlineOfflineRequest {
         private final List<String> objectIDs;
         private final List<String> attributesToRetrieve;
+        private final RequestOptions requestOptions;
 
-        public OnlineOfflineGetObjectsRequest(@NonNull List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
+        public OnlineOfflineGetObjectsRequest(@NonNull List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
             super(completionHandler);
             this.objectIDs = objectIDs;
             this.attributesToRetrieve = attributesToRetrieve;
+            this.requestOptions = requestOptions;
         }
 
         @Override
         protected Request startOnlineRequest(CompletionHandler completionHandler) {
-            return getObjectsOnlineAsync(objectIDs, attributesToRetrieve, completionHandler);
+            return getObjectsOnlineAsync(objectIDs, attributesToRetrieve, requestOptions, completionHandler);
         }
 
         @Override
@@ -1404,7 +1454,21 @@ public class MirroredIndex extends Index
      * @return A cancellable request.
      */
     public Request getObjectsOnlineAsync(@NonNull final List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @NonNull final CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getObjectsOnlineAsync(objectIDs, attributesToRetrieve, null, completionHandler);
+    }
+
+    /**
+     * Get individual objects, explicitly targeting the online API, not the offline mirror, with specific options.
+     *
+     * @param objectIDs Identifiers of objects to retrieve.
+     * @param attributesToRetrieve Attributes to retrieve. If `null` or if at least one item is `*`, all retrievable
+     *                             attributes will be retrieved.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request getObjectsOnlineAsync(@NonNull final List<String> objectIDs, final @Nullable List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull final CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
@@ -51,8 +51,11 @@ public class BrowseIteratorTest extends RobolectricTestCase {
         super.setUp();
         client = new Client(Helpers.app_id, Helpers.api_key);
         // WARNING: Robolectric cannot work with custom executors in `AsyncTask`, so we substitute the client's
-        // executor with a Robolectric-compliant one.
+        // executors with Robolectric-compliant ones.
         Whitebox.setInternalState(client, "searchExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "writeExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "longRunningExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "backgroundExecutorService", new RoboExecutorService());
         indexName = Helpers.safeIndexName("àlgol?à-android");
         index = client.initIndex(indexName);
 
@@ -24,15 +24,31 @@
 package com.algolia.search.saas;
 
 import android.annotation.SuppressLint;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import org.json.JSONObject;
 import org.junit.Test;
 import org.mockito.internal.util.reflection.Whitebox;
 import org.robolectric.util.concurrent.RoboExecutorService;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * <a href="http://d.android.com/tools/testing/testing_android.html">Testing Fundamentals</a>
@@ -47,8 +63,11 @@ public class ClientTest extends RobolectricTestCase {
         super.setUp();
         client = new Client(Helpers.app_id, Helpers.api_key);
         // WARNING: Robolectric cannot work with custom executors in `AsyncTask`, so we substitute the client's
-        // executor with a Robolectric-compliant one.
+        // executors with Robolectric-compliant ones.
         Whitebox.setInternalState(client, "searchExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "writeExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "longRunningExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "backgroundExecutorService", new RoboExecutorService());
     }
 
     @Override
@@ -78,4 +97,535 @@ public class ClientTest extends RobolectricTestCase {
         assertNull(indices.get(indexName).get());
         */
     }
+
+    @Test
+    public void customTransport() throws Exception {
+        MockTransport transport = new MockTransport(200, "{\"items\": []}");
+        client.setTransport(transport);
+        assertEquals(transport, client.getTransport());
+
+        JSONObject content = client.listIndexes();
+        assertEquals(0, content.getJSONArray("items").length());
+
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertEquals(1, calls.size());
+        MockTransport.Call call = calls.get(0);
+        assertEquals("GET", call.method);
+        assertEquals(client.getReadHosts()[0], call.getHost());
+        assertEquals("/1/indexes/", call.url.getPath());
+        assertEquals(Helpers.app_id, call.headers.get("X-Algolia-Application-Id"));
+        assertEquals(Helpers.api_key, call.headers.get("X-Algolia-API-Key"));
+        assertTrue("A fully read connection should be reusable", call.released && call.reusable);
+    }
+
+    @Test
+    public void hedgedRead() throws Exception {
+        final String slowHost = "slow.algolia.net";
+        final String fastHost = "fast.algolia.net";
+        client.setReadHosts(slowHost, fastHost);
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals(slowHost)) {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return new MockTransport.Response(200, "{\"host\": \"" + call.getHost() + "\"}");
+            }
+        });
+        client.setTransport(transport);
+
+        // Without hedging, the slow host is waited for.
+        // NOTE: This uses another client, so that the latency measured here does not demote the slow host below.
+        Client unhedgedClient = new Client(Helpers.app_id, Helpers.api_key);
+        unhedgedClient.setReadHosts(slowHost, fastHost);
+        unhedgedClient.setTransport(transport);
+        assertFalse(unhedgedClient.isHedgingEnabled());
+        long startTime = System.currentTimeMillis();
+        assertEquals(slowHost, unhedgedClient.listIndexes().getString("host"));
+        assertTrue(System.currentTimeMillis() - startTime >= 2000);
+        assertEquals(1, transport.getCalls().size());
+
+        // With hedging, the fast host wins and the slow request is cancelled.
+        client.setHedgingEnabled(true);
+        client.setInitialHedgingDelay(100);
+        startTime = System.currentTimeMillis();
+        assertEquals(fastHost, client.listIndexes().getString("host"));
+        assertTrue(System.currentTimeMillis() - startTime < 1000);
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertEquals(3, calls.size());
+        assertEquals(slowHost, calls.get(1).getHost());
+        assertTrue("The losing request should have been cancelled", calls.get(1).cancelled);
+        assertFalse(calls.get(2).cancelled);
+        assertTrue("A cancelled request should not mark its host as down", client.isUpOrCouldBeRetried(slowHost));
+    }
+
+    @Test
+    public void hostsRankedByLatencyAndErrors() throws Exception {
+        final String slowHost = "slow.algolia.net";
+        final String failingHost = "failing.algolia.net";
+        final String fastHost = "fast.algolia.net";
+        client.setReadHosts(slowHost, failingHost, fastHost);
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals(slowHost)) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                } else if (call.getHost().equals(failingHost)) {
+                    return new MockTransport.Response(503, "{\"message\": \"Service unavailable\"}");
+                }
+                return new MockTransport.Response(200, "{}");
+            }
+        });
+        client.setTransport(transport);
+
+        // Untried hosts keep their static order.
+        client.listIndexes();
+        assertEquals(slowHost, transport.getCalls().get(0).getHost());
+
+        // A slow host is demoted below untried ones...
+        client.listIndexes();
+        assertEquals(failingHost, transport.getCalls().get(1).getHost());
+        assertEquals(fastHost, transport.getCalls().get(2).getHost());
+
+        // ... and a host returning errors is demoted below healthy ones, without being considered down.
+        client.listIndexes();
+        assertEquals(4, transport.getCalls().size());
+        assertEquals(fastHost, transport.getCalls().get(3).getHost());
+        assertTrue(client.isUpOrCouldBeRetried(failingHost));
+    }
+
+    @Test
+    public void serverErrorMessage() throws Exception {
+        client.setReadHosts("host1.algolia.net", "host2.algolia.net");
+        client.setTransport(new MockTransport(503, "Service temporarily unavailable"));
+        try {
+            client.listIndexes();
+            fail("Server errors on all hosts should result in an error");
+        } catch (AlgoliaException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Service temporarily unavailable"));
+        }
+    }
+
+    @Test
+    public void rawResponses() throws Exception {
+        // A body much larger than the default buffer, with or without a known length.
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 10 * ResponseBuffer.DEFAULT_CAPACITY) {
+            builder.append("{\"objectID\": \"").append(builder.length()).append("\"}, ");
+        }
+        final byte[] body = builder.toString().getBytes("UTF-8");
+        client.setTransport(new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                MockTransport.Response response = new MockTransport.Response(200, body);
+                if (call.url.getPath().endsWith("sized")) {
+                    response.header("Content-Length", Integer.toString(body.length));
+                }
+                return response;
+            }
+        }));
+        for (int i = 0; i < 3; ++i) { // buffers are recycled from one request to the next
+            assertArrayEquals(body, client.getRequestRaw("/1/sized", false));
+            assertArrayEquals(body, client.getRequestRaw("/1/unsized", false));
+        }
+    }
+
+    @Test
+    public void bogusContentLength() throws Exception {
+        // A huge announced length must not be allocated up front.
+        final byte[] body = "{\"items\": []}".getBytes("UTF-8");
+        client.setTransport(new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                return new MockTransport.Response(200, body).header("Content-Length", Integer.toString(Integer.MAX_VALUE));
+            }
+        }));
+        assertArrayEquals(body, client.getRequestRaw("/1/indexes", false));
+        assertEquals(0, client.listIndexes().getJSONArray("items").length());
+    }
+
+    @Test
+    public void requestCompression() throws Exception {
+        MockTransport transport = new MockTransport(200, "{}");
+        client.setTransport(transport);
+        StringBuilder builder = new StringBuilder("{\"requests\": [");
+        while (builder.length() < client.getRequestCompressionThreshold()) {
+            builder.append("{\"action\": \"addObject\", \"body\": {\"name\": \"Francisco\"}}, ");
+        }
+        final String body = builder.append("{}]}").toString();
+
+        // Disabled by default.
+        assertFalse(client.isRequestCompressionEnabled());
+        client.postRequest("/1/indexes/*/batch", body, false);
+        MockTransport.Call call = transport.getCalls().get(0);
+        assertEquals(null, call.headers.get("Content-Encoding"));
+        assertEquals(body.length(), call.contentLength);
+        assertEquals(body, call.body.toString("UTF-8"));
+
+        // Only large bodies are compressed.
+        client.setRequestCompressionEnabled(true);
+        client.postRequest("/1/indexes/*/batch", "{}", false);
+        assertEquals(null, transport.getCalls().get(1).headers.get("Content-Encoding"));
+        client.postRequest("/1/indexes/*/batch", body, false);
+        call = transport.getCalls().get(2);
+        assertEquals("gzip", call.headers.get("Content-Encoding"));
+        assertEquals(-1, call.contentLength);
+        assertTrue(call.body.size() < body.length());
+        GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(call.body.toByteArray()));
+        assertArrayEquals(body.getBytes("UTF-8"), new ResponseBuffer(new ByteArrayPool(0), -1).readFrom(input).toByteArray());
+    }
+
+    @Test
+    public void requestDeadline() throws Exception {
+        client.setReadHosts("host1.algolia.net", "host2.algolia.net", "host3.algolia.net", "host4.algolia.net");
+        // Every host hangs until the read timeout expires.
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                try {
+                    Thread.sleep(call.readTimeout);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                throw new SocketTimeoutException();
+            }
+        });
+        client.setTransport(transport);
+        client.setRetryPolicy(new RetryPolicy().setInitialBackoff(0));
+        client.setSearchTimeout(400);
+        client.setRequestTimeout(1000);
+        final long startTime = System.currentTimeMillis();
+        try {
+            client.getRequest("/1/indexes", true);
+            fail("A request exceeding its deadline should fail");
+        } catch (AlgoliaException e) {
+            assertTrue(e.isTransient());
+        }
+        final long duration = System.currentTimeMillis() - startTime;
+        assertTrue("The deadline should bound the request, but it took " + duration + " ms", duration < 1500);
+        // Two full attempts, then attempts cut to the remaining budget.
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertTrue(calls.size() >= 3);
+        assertEquals(400, calls.get(0).readTimeout);
+        assertTrue(calls.get(calls.size() - 1).readTimeout <= 200);
+    }
+
+    @Test
+    public void requestOptionsOverloads() throws Exception {
+        MockTransport transport = new MockTransport(200, "{}");
+        client.setTransport(transport);
+        final RequestOptions requestOptions = new RequestOptions().setTimeout(500);
+        final List<AlgoliaException> errors = new ArrayList<>();
+        final CompletionHandler handler = new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                if (error != null) {
+                    errors.add(error);
+                }
+            }
+        };
+        Index index = client.getIndex("name");
+        index.getObjectAsync("1", null, requestOptions, handler);
+        index.getSettingsAsync(requestOptions, handler);
+        index.deleteObjectAsync("1", requestOptions, handler);
+        index.clearIndexAsync(requestOptions, handler);
+        index.searchForFacetValuesAsync("brand", "a", null, requestOptions, handler);
+        client.deleteIndexAsync("name", requestOptions, handler);
+        client.copyIndexAsync("name", "copy", requestOptions, handler);
+        assertEquals(Collections.emptyList(), errors);
+
+        // Each call is bounded by the options' timeout rather than the client's (much longer) default.
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertEquals(7, calls.size());
+        for (MockTransport.Call call : calls) {
+            assertTrue("Read timeout should be capped, got " + call.readTimeout, call.readTimeout <= 500);
+        }
+    }
+
+    @Test
+    public void retryPolicy() throws Exception {
+        client.setReadHosts("host1.algolia.net", "host2.algolia.net", "host3.algolia.net");
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals("host3.algolia.net")) {
+                    return new MockTransport.Response(200, "{}");
+                }
+                return new MockTransport.Response(429, "{\"message\": \"Too many requests\"}").header("Retry-After", "1");
+            }
+        });
+        client.setTransport(transport);
+        client.setRetryPolicy(new RetryPolicy().setMaxRetryTokens(2).setRetryRatio(0));
+
+        // Rate limiting is retried, after the delay requested by the server.
+        long startTime = System.currentTimeMillis();
+        client.listIndexes();
+        assertTrue(System.currentTimeMillis() - startTime >= 2000);
+        assertEquals(3, transport.getCalls().size());
+
+        // Once the retry budget is exhausted, failed requests are not retried anymore.
+        client.setReadHosts("host1.algolia.net", "host2.algolia.net");
+        try {
+            client.listIndexes();
+            fail("Requests should not be retried beyond the retry budget");
+        } catch (AlgoliaException e) {
+            assertTrue(e.isTransient());
+        }
+        assertEquals(4, transport.getCalls().size());
+    }
+
+    @Test
+    public void circuitBreaker() throws Exception {
+        final String host = "host1.algolia.net";
+        client.setReadHosts(host);
+        final boolean[] hostDown = { true };
+        final AbstractClient.CircuitState[] stateDuringProbe = new AbstractClient.CircuitState[1];
+        final boolean[] couldBeRetriedDuringProbe = { true };
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (hostDown[0]) {
+                    throw new IOException("Connection refused");
+                }
+                stateDuringProbe[0] = client.getCircuitState(host);
+                couldBeRetriedDuringProbe[0] = client.isUpOrCouldBeRetried(host);
+                return new MockTransport.Response(200, "{}");
+            }
+        });
+        client.setTransport(transport);
+        client.setHostFailureThreshold(2);
+        client.setHostDownDelay(60000);
+        client.setCompletionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        final List<String> transitions = new ArrayList<>();
+        client.addCircuitBreakerListener(new CircuitBreakerListener() {
+            @Override
+            public void circuitStateDidChange(String host, AbstractClient.CircuitState oldState, AbstractClient.CircuitState newState) {
+                transitions.add(oldState + "->" + newState);
+            }
+        });
+
+        // The circuit opens after two consecutive failures...
+        for (int i = 0; i < 2; ++i) {
+            assertEquals(AbstractClient.CircuitState.CLOSED, client.getCircuitState(host));
+            try {
+                client.listIndexes();
+                fail("An unreachable host should result in an error");
+            } catch (AlgoliaException e) {
+                assertTrue(e.isTransient());
+            }
+        }
+        assertEquals(AbstractClient.CircuitState.OPEN, client.getCircuitState(host));
+        assertEquals(2, transport.getCalls().size());
+
+        // ... after which, since no other host is available, each request probes the host instead of failing
+        // right away...
+        try {
+            client.listIndexes();
+            fail("A down host should result in an error");
+        } catch (AlgoliaException e) {
+            assertTrue(e.isTransient());
+        }
+        assertEquals(3, transport.getCalls().size());
+        assertEquals(AbstractClient.CircuitState.OPEN, client.getCircuitState(host));
+
+        // ... without waiting for the host down delay: a successful probe closes the circuit.
+        hostDown[0] = false;
+        client.listIndexes();
+        assertEquals(4, transport.getCalls().size());
+        assertEquals(AbstractClient.CircuitState.HALF_OPEN, stateDuringProbe[0]);
+        assertFalse("No other request should reach a host being probed", couldBeRetriedDuringProbe[0]);
+        assertEquals(AbstractClient.CircuitState.CLOSED, client.getCircuitState(host));
+        assertEquals(Arrays.asList("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    public void warmUp() throws Exception {
+        final String downHost = "host1.algolia.net";
+        final String upHost = "host2.algolia.net";
+        client.setReadHosts(downHost, upHost, "host3.algolia.net");
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals(downHost)) {
+                    throw new IOException("Connection refused");
+                }
+                return new MockTransport.Response(200, "{\"message\": \"server is alive\"}");
+            }
+        });
+        client.setTransport(transport);
+
+        // The two best hosts are connected to, in parallel.
+        JSONObject content = client.warmUp();
+        assertEquals(2, content.getJSONArray("hosts").length());
+        assertEquals(downHost, content.getJSONArray("hosts").getJSONObject(0).getString("host"));
+        assertTrue(content.getJSONArray("hosts").getJSONObject(0).has("error"));
+        assertEquals(upHost, content.getJSONArray("hosts").getJSONObject(1).getString("host"));
+        assertTrue(content.getJSONArray("hosts").getJSONObject(1).getLong("timeMS") >= 0);
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertEquals(2, calls.size());
+        for (MockTransport.Call call : calls) {
+            assertEquals("/1/isalive", call.url.getPath());
+        }
+        assertTrue("Warmed up connections should be kept alive", calls.get(calls.get(0).getHost().equals(upHost) ? 0 : 1).reusable);
+
+        // The unreachable host is skipped from the first request on.
+        client.listIndexes();
+        assertEquals(upHost, transport.getCalls().get(2).getHost());
+    }
+
+    @Test
+    public void requestEvents() throws Exception {
+        final String downHost = "host1.algolia.net";
+        final String upHost = "host2.algolia.net";
+        client.setReadHosts(downHost, upHost);
+        final String body = "{\"items\": []}";
+        client.setTransport(new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals(downHost)) {
+                    throw new IOException("Connection refused");
+                }
+                return new MockTransport.Response(200, body);
+            }
+        }));
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        client.setRequestEventListener(new RequestEventListener() {
+            @Override
+            public void callStart(long callId, @NonNull String method, @NonNull String path) {
+                events.add("callStart " + method + " " + path);
+            }
+
+            @Override
+            public void hostSelected(long callId, @NonNull String host) {
+                events.add("hostSelected " + host);
+            }
+
+            @Override
+            public void connectStart(long callId, @NonNull String host) {
+                events.add("connectStart " + host);
+            }
+
+            @Override
+            public void connectEnd(long callId, @NonNull String host) {
+                events.add("connectEnd " + host);
+            }
+
+            @Override
+            public void responseStart(long callId, @NonNull String host, int statusCode) {
+                events.add("responseStart " + host + " " + statusCode);
+            }
+
+            @Override
+            public void responseBodyEnd(long callId, @NonNull String host, long byteCount) {
+                events.add("responseBodyEnd " + host + " " + byteCount);
+            }
+
+            @Override
+            public void retry(long callId, @NonNull String host, int retryCount, long backoff) {
+                events.add("retry " + host + " " + retryCount);
+            }
+
+            @Override
+            public void jsonParsed(long callId, long byteCount) {
+                events.add("jsonParsed " + byteCount);
+            }
+
+            @Override
+            public void callEnd(long callId, @Nullable AlgoliaException error) {
+                events.add("callEnd " + (error == null ? "ok" : "error"));
+            }
+        });
+
+        client.listIndexes();
+        assertEquals(Arrays.asList(
+                "callStart GET /1/indexes/",
+                "hostSelected " + downHost,
+                "connectStart " + downHost,
+                "connectEnd " + downHost,
+                "retry " + upHost + " 1",
+                "hostSelected " + upHost,
+                "connectStart " + upHost,
+                "connectEnd " + upHost,
+                "responseStart " + upHost + " 200",
+                "responseBodyEnd " + upHost + " " + body.length(),
+                "jsonParsed " + body.length(),
+                "callEnd ok"
+        ), events);
+
+        // Once removed, the listener is no longer notified.
+        client.setRequestEventListener(null);
+        events.clear();
+        client.listIndexes();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void searchEvents() throws Exception {
+        final String host = "host1.algolia.net";
+        client.setReadHosts(host);
+        final String body = "{\"hits\": []}";
+        client.setTransport(new MockTransport(200, body));
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        client.setRequestEventListener(new RequestEventListener() {
+            @Override
+            public void callStart(long callId, @NonNull String method, @NonNull String path) {
+                events.add(callId + " callStart " + method + " " + path);
+            }
+
+            @Override
+            public void hostSelected(long callId, @NonNull String host) {
+                events.add(callId + " hostSelected " + host);
+            }
+
+            @Override
+            public void jsonParsed(long callId, long byteCount) {
+                events.add(callId + " jsonParsed " + byteCount);
+            }
+
+            @Override
+            public void callEnd(long callId, @Nullable AlgoliaException error) {
+                events.add(callId + " callEnd " + (error == null ? "ok" : "error"));
+            }
+
+            @Override
+            public void cacheHit(long callId, @NonNull String indexName, long byteCount) {
+                events.add(callId + " cacheHit " + indexName + " " + byteCount);
+            }
+
+            @Override
+            public void cacheMiss(long callId, @NonNull String indexName) {
+                events.add(callId + " cacheMiss " + indexName);
+            }
+        });
+        Index index = client.getIndex("name");
+        index.enableSearchCache();
+
+        // The cache lookup, the network call and the decoding of the response are reported as a single call.
+        index.searchSync(new Query("a"));
+        index.searchSync(new Query("a"));
+        assertEquals(Arrays.asList(
+                "1 callStart POST /1/indexes/name/query",
+                "1 cacheMiss name",
+                "1 hostSelected " + host,
+                "1 jsonParsed " + body.length(),
+                "1 callEnd ok",
+                "2 callStart POST /1/indexes/name/query",
+                "2 cacheHit name " + body.length(),
+                "2 jsonParsed " + body.length(),
+                "2 callEnd ok"
+        ), events);
+    }
 }
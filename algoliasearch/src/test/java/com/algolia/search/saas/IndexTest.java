@@ -44,6 +44,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -80,13 +87,19 @@ public class IndexTest extends RobolectricTestCase {
     List<JSONObject> objects;
     List<String> ids;
 
+    /** Executor of the mocked clients, if any. */
+    ExecutorService mockedExecutorService;
+
     @Override
     public void setUp() throws Exception {
         super.setUp();
         client = new Client(Helpers.app_id, Helpers.api_key);
         // WARNING: Robolectric cannot work with custom executors in `AsyncTask`, so we substitute the client's
-        // executor with a Robolectric-compliant one.
+        // executors with Robolectric-compliant ones.
         Whitebox.setInternalState(client, "searchExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "writeExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "longRunningExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "backgroundExecutorService", new RoboExecutorService());
 
         if (!didInitIndices) {
             Index originalIndex = client.getIndex(originalIndexName);
@@ -130,6 +143,9 @@ public class IndexTest extends RobolectricTestCase {
             fail(e.getMessage());
         }
         AssertCompletionHandler.checkAllHandlers();
+        if (mockedExecutorService != null) {
+            mockedExecutorService.shutdownNow();
+        }
     }
 
     @Test
@@ -490,11 +506,12 @@ public class IndexTest extends RobolectricTestCase {
         // Given all hosts resulting in a DNS Timeout
         String appId = (String) Whitebox.getInternalState(client, "applicationID");
         List<String> hostsArray = (List<String>) Whitebox.getInternalState(client, "readHosts");
-        final String hostName = appId + "-dsn.algolia.biz"; //TODO: Random host name to avoid system DNS cache
-        hostsArray.set(0, hostName);
-        hostsArray.set(1, hostName);
-        hostsArray.set(2, hostName);
-        hostsArray.set(3, hostName);
+        // NOTE: Distinct host names, since a host that has just failed is not tried again within the same request.
+        final String hostName = "-dsn.algolia.biz"; //TODO: Random host name to avoid system DNS cache
+        hostsArray.set(0, appId + "-1" + hostName);
+        hostsArray.set(1, appId + "-2" + hostName);
+        hostsArray.set(2, appId + "-3" + hostName);
+        hostsArray.set(3, appId + "-4" + hostName);
         Whitebox.setInternalState(client, "readHosts", hostsArray);
 
         //A connect timeout of 500 ms
@@ -828,6 +845,216 @@ public class IndexTest extends RobolectricTestCase {
         verify(mockClient, times(nbTimes)).postRequestRaw(anyString(), anyString(), anyBoolean());
     }
 
+    /**
+     * Create a client talking to a mock transport instead of the API.
+     * Its requests run concurrently on a real executor, shut down after the test. Completion handlers are called
+     * directly on that executor.
+     *
+     * @param transport The transport to use.
+     * @return A new client.
+     */
+    private Client newMockedClient(MockTransport transport) {
+        Client mockedClient = new Client(Helpers.app_id, Helpers.api_key);
+        mockedClient.setTransport(transport);
+        if (mockedExecutorService == null) {
+            mockedExecutorService = Executors.newCachedThreadPool();
+        }
+        Whitebox.setInternalState(mockedClient, "searchExecutorService", mockedExecutorService);
+        mockedClient.setCompletionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        return mockedClient;
+    }
+
+    @Test
+    public void coalescedSearches() throws Exception {
+        final CountDownLatch responseGate = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                try {
+                    responseGate.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw new IOException(e);
+                }
+                return new MockTransport.Response(200, "{\"hits\": []}");
+            }
+        });
+        Client mockedClient = newMockedClient(transport);
+        Index mockedIndex = mockedClient.getIndex("coalescing");
+        final CountDownLatch completed = new CountDownLatch(3);
+        final AtomicInteger completionCount = new AtomicInteger();
+        final List<JSONObject> results = Collections.synchronizedList(new ArrayList<JSONObject>());
+        CompletionHandler completionHandler = new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                assertTrue(error == null && content != null);
+                results.add(content);
+                completionCount.incrementAndGet();
+                completed.countDown();
+            }
+        };
+
+        // Identical searches share the same network call; different ones do not.
+        Request cancelledRequest = mockedIndex.searchAsync(new Query("foo"), completionHandler);
+        mockedIndex.searchAsync(new Query("foo"), completionHandler);
+        mockedIndex.searchAsync(new Query("foo"), completionHandler);
+        mockedIndex.searchAsync(new Query("bar"), completionHandler);
+        // Cancelling one of them does not affect the others.
+        cancelledRequest.cancel();
+        assertTrue(cancelledRequest.isCancelled());
+        responseGate.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(3, completionCount.get());
+        assertEquals(2, transport.getCalls().size());
+        // Each handler receives its own copy of the results, which it may modify.
+        assertTrue(results.get(0) != results.get(1) && results.get(1) != results.get(2) && results.get(0) != results.get(2));
+        results.get(0).put("hits", "modified");
+        assertTrue(results.get(1).get("hits") != results.get(0).get("hits"));
+
+        // The network call is cancelled once all searches sharing it are.
+        final CountDownLatch secondCallStarted = new CountDownLatch(1);
+        final CountDownLatch secondResponseGate = new CountDownLatch(1);
+        mockedClient.setTransport(new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                secondCallStarted.countDown();
+                try {
+                    secondResponseGate.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw new IOException(e);
+                }
+                return new MockTransport.Response(200, "{\"hits\": []}");
+            }
+        }));
+        Request request1 = mockedIndex.searchAsync(new Query("baz"), completionHandler);
+        Request request2 = mockedIndex.searchAsync(new Query("baz"), completionHandler);
+        assertTrue(secondCallStarted.await(5, TimeUnit.SECONDS));
+        request1.cancel();
+        Thread.sleep(100);
+        assertFalse(interrupted.get());
+        request2.cancel();
+        Thread.sleep(100);
+        assertTrue("The network call should be cancelled", interrupted.get());
+        assertEquals(3, completionCount.get());
+    }
+
+    @Test
+    public void latencyMetrics() throws Exception {
+        final String downHost = "host1.algolia.net";
+        final String upHost = "host2.algolia.net";
+        final String body = "{\"objectID\": \"1\"}";
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (call.getHost().equals(downHost)) {
+                    throw new IOException("Connection refused");
+                }
+                return new MockTransport.Response(200, body);
+            }
+        });
+        Client mockedClient = newMockedClient(transport);
+        mockedClient.setReadHosts(downHost, upHost);
+        mockedClient.setWriteHosts(upHost);
+        Index mockedIndex = mockedClient.getIndex("metrics");
+
+        // Asynchronous operations are recorded by type, on the index performing them.
+        final CountDownLatch completed = new CountDownLatch(1);
+        mockedIndex.getObjectAsync("1", new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                completed.countDown();
+            }
+        });
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Map<OperationType, LatencySnapshot> latencies = mockedIndex.getLatencyMetrics();
+        assertEquals(Collections.singleton(OperationType.GET_OBJECTS), latencies.keySet());
+        LatencySnapshot snapshot = latencies.get(OperationType.GET_OBJECTS);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getErrorCount());
+        assertTrue(snapshot.getP50() >= 0);
+        assertTrue(snapshot.getP50() <= snapshot.getP999());
+        assertTrue(mockedClient.getLatencyMetrics().isEmpty());
+
+        // Requests, errors and bytes are counted per host.
+        mockedIndex.addObject(new JSONObject().put("foo", "bar"));
+        Map<String, HostMetrics> hosts = mockedClient.getHostMetrics();
+        assertEquals(1, hosts.get(downHost).getRequestCount());
+        assertEquals(1, hosts.get(downHost).getErrorCount());
+        assertEquals(0, hosts.get(downHost).getBytesReceived());
+        assertEquals(2, hosts.get(upHost).getRequestCount());
+        assertEquals(0, hosts.get(upHost).getErrorCount());
+        assertEquals(2 * body.length(), hosts.get(upHost).getBytesReceived());
+        List<MockTransport.Call> calls = transport.getCalls();
+        assertEquals(calls.get(calls.size() - 1).body.size(), hosts.get(upHost).getBytesSent());
+    }
+
+    @Test
+    public void separateLanes() throws Exception {
+        final CountDownLatch responseGate = new CountDownLatch(1);
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                // Searches are answered right away; everything else hangs until the gate opens.
+                if (!call.url.getPath().endsWith("/query")) {
+                    try {
+                        responseGate.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return new MockTransport.Response(200, "{\"hits\": [], \"taskID\": 1}");
+            }
+        });
+        Client mockedClient = newMockedClient(transport);
+        Index mockedIndex = mockedClient.getIndex("lanes");
+        // Saturate the write and long-running lanes with a single thread each.
+        ExecutorService writeLane = Executors.newSingleThreadExecutor();
+        ExecutorService longRunningLane = Executors.newSingleThreadExecutor();
+        Whitebox.setInternalState(mockedClient, "writeExecutorService", writeLane);
+        Whitebox.setInternalState(mockedClient, "longRunningExecutorService", longRunningLane);
+        try {
+            final CountDownLatch blockedCompleted = new CountDownLatch(4);
+            CompletionHandler blockedHandler = new CompletionHandler() {
+                @Override
+                public void requestCompleted(JSONObject content, AlgoliaException error) {
+                    blockedCompleted.countDown();
+                }
+            };
+            mockedIndex.addObjectAsync(new JSONObject().put("foo", "bar"), blockedHandler);
+            mockedIndex.addObjectAsync(new JSONObject().put("foo", "baz"), blockedHandler);
+            mockedIndex.browseAsync(new Query(), blockedHandler);
+            mockedIndex.browseAsync(new Query(), blockedHandler);
+
+            // Searches still make progress while the other lanes are blocked.
+            final CountDownLatch searchCompleted = new CountDownLatch(1);
+            mockedIndex.searchAsync(new Query("foo"), new CompletionHandler() {
+                @Override
+                public void requestCompleted(JSONObject content, AlgoliaException error) {
+                    assertNull(error);
+                    searchCompleted.countDown();
+                }
+            });
+            assertTrue("The search should not wait for the blocked lanes", searchCompleted.await(5, TimeUnit.SECONDS));
+            assertEquals(4, blockedCompleted.getCount());
+
+            // The blocked lanes resume once their requests are answered.
+            responseGate.countDown();
+            assertTrue(blockedCompleted.await(5, TimeUnit.SECONDS));
+        } finally {
+            responseGate.countDown();
+            writeLane.shutdownNow();
+            longRunningLane.shutdownNow();
+        }
+    }
+
     @Test
     public void nullCompletionHandler() throws Exception {
         // Check that the code does not crash when no completion handler is specified.
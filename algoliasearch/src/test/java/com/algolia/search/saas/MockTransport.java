@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Transport} serving canned responses, used to test the client without any network access.
+ */
+public class MockTransport implements Transport {
+    /**
+     * Produces the response to a request.
+     */
+    public interface Responder {
+        /**
+         * Respond to a request.
+         *
+         * @param call The request being made.
+         * @return The response to send back.
+         * @throws IOException To simulate a network error.
+         */
+        @NonNull Response respond(@NonNull Call call) throws IOException;
+    }
+
+    /**
+     * A canned response.
+     */
+    public static class Response {
+        public final int statusCode;
+        public final @NonNull byte[] body;
+        public final @NonNull Map<String, String> headers = new HashMap<>();
+
+        public Response(int statusCode, @NonNull String body) {
+            this(statusCode, body.getBytes());
+        }
+
+        public Response(int statusCode, @NonNull byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        public Response header(@NonNull String name, @NonNull String value) {
+            headers.put(name, value);
+            return this;
+        }
+    }
+
+    /**
+     * A recorded request.
+     */
+    public static class Call {
+        public final @NonNull URL url;
+        public final @NonNull String method;
+        public final int connectTimeout;
+        public final int readTimeout;
+        public final @NonNull Map<String, String> headers = new HashMap<>();
+        public final @NonNull ByteArrayOutputStream body = new ByteArrayOutputStream();
+        public long contentLength = -1;
+        public volatile boolean released;
+        public volatile boolean reusable;
+        public volatile boolean cancelled;
+
+        Call(@NonNull URL url, @NonNull String method, int connectTimeout, int readTimeout) {
+            this.url = url;
+            this.method = method;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+
+        public @NonNull String getHost() {
+            return url.getAuthority();
+        }
+    }
+
+    private final @NonNull Responder responder;
+
+    /** All requests made so far, in order. */
+    private final List<Call> calls = Collections.synchronizedList(new ArrayList<Call>());
+
+    public MockTransport(@NonNull Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Create a transport always responding with the same content.
+     *
+     * @param statusCode HTTP status code to return.
+     * @param body       Body to return.
+     */
+    public MockTransport(final int statusCode, final @NonNull String body) {
+        this(new Responder() {
+            @NonNull
+            @Override
+            public Response respond(@NonNull Call call) throws IOException {
+                return new Response(statusCode, body);
+            }
+        });
+    }
+
+    public @NonNull List<Call> getCalls() {
+        synchronized (calls) {
+            return new ArrayList<>(calls);
+        }
+    }
+
+    @Override
+    public @NonNull Connection open(@NonNull URL url, @NonNull String method, int connectTimeout, int readTimeout) throws IOException {
+        final Call call = new Call(url, method, connectTimeout, readTimeout);
+        calls.add(call);
+        return new Connection() {
+            private Response response;
+
+            @Override
+            public void setRequestHeader(@NonNull String name, @NonNull String value) {
+                call.headers.put(name, value);
+            }
+
+            @Override
+            public @NonNull OutputStream getRequestBody(long contentLength) throws IOException {
+                call.contentLength = contentLength;
+                return call.body;
+            }
+
+            @Override
+            public void connect() throws IOException {
+                // Nothing to do.
+            }
+
+            @Override
+            public int getResponseCode() throws IOException {
+                if (response == null) {
+                    response = responder.respond(call);
+                }
+                return response.statusCode;
+            }
+
+            @Override
+            public @Nullable String getResponseHeader(@NonNull String name) {
+                return response == null ? null : response.headers.get(name);
+            }
+
+            @Override
+            public @Nullable InputStream getResponseBody() throws IOException {
+                getResponseCode();
+                return new ByteArrayInputStream(response.body);
+            }
+
+            @Override
+            public void release(boolean reusable) {
+                call.released = true;
+                call.reusable = reusable;
+            }
+
+            @Override
+            public void cancel() {
+                call.cancelled = true;
+            }
+        };
+    }
+}
@@ -38,6 +38,7 @@ import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -61,6 +62,110 @@ public class QueryTest extends RobolectricTestCase {
         assertEquals("a=A&b=B&c=C", queryString);
     }
 
+    /** Test that a query is serialized again only when it changes. */
+    @Test
+    public void buildMemoized() {
+        Query query = new Query("foo").setHitsPerPage(10);
+        String queryString = query.build();
+        assertEquals("hitsPerPage=10&query=foo", queryString);
+        assertSame(queryString, query.build());
+
+        // Setting a parameter to its current value does not invalidate the serialized form.
+        query.setHitsPerPage(10);
+        assertSame(queryString, query.build());
+
+        // Changing, adding or removing a parameter does.
+        query.setQuery("foo bar");
+        assertEquals("hitsPerPage=10&query=foo%20bar", query.build());
+        query.setPage(2);
+        assertEquals("hitsPerPage=10&page=2&query=foo%20bar", query.build());
+        query.setHitsPerPage(null);
+        assertEquals("page=2&query=foo%20bar", query.build());
+
+        // Copies share the serialized form, but not its invalidation.
+        Query copy = new Query(query);
+        assertSame(query.build(), copy.build());
+        copy.setQuery("baz");
+        assertEquals("page=2&query=baz", copy.build());
+        assertEquals("page=2&query=foo%20bar", query.build());
+    }
+
+    /** Test that natively stored values behave like their serialized form. */
+    @Test
+    public void typedStorage() {
+        // A typed value equals the same value parsed from a string.
+        Query query = new Query().setHitsPerPage(10).setAnalyticsTags("foo", "bar");
+        Query parsed = Query.parse("analyticsTags=%5B%22foo%22%2C%22bar%22%5D&hitsPerPage=10");
+        assertEquals(parsed, query);
+        assertEquals(parsed.hashCode(), query.hashCode());
+        assertEquals(Integer.valueOf(10), parsed.getHitsPerPage());
+
+        // Arrays are copied in both directions.
+        String[] tags = {"foo", "bar"};
+        query.setAnalyticsTags(tags);
+        tags[0] = "baz";
+        query.getAnalyticsTags()[1] = "baz";
+        assertArrayEquals(new String[]{"foo", "bar"}, query.getAnalyticsTags());
+        assertEquals("[\"foo\",\"bar\"]", query.get("analyticsTags"));
+
+        // So are polygons.
+        Query.Polygon[] polygons = {new Query.Polygon(new Query.LatLng(1, 2), new Query.LatLng(3, 4), new Query.LatLng(5, 6))};
+        query.setInsidePolygon(polygons);
+        polygons[0] = null;
+        assertNotNull(query.getInsidePolygon()[0]);
+        assertEquals("1.0,2.0,3.0,4.0,5.0,6.0", query.get("insidePolygon"));
+    }
+
+    /** Test that copies of a query are independent, although they initially share their parameters. */
+    @Test
+    public void copyOnWrite() {
+        Query query = new Query("foo").setHitsPerPage(10);
+        Query copy = new Query(query);
+        Query copyOfCopy = new Query(copy);
+
+        // Modifying the original does not affect the copies.
+        query.setPage(1);
+        assertEquals("hitsPerPage=10&page=1&query=foo", query.build());
+        assertEquals("hitsPerPage=10&query=foo", copy.build());
+        assertEquals("hitsPerPage=10&query=foo", copyOfCopy.build());
+
+        // Modifying a copy affects neither the original nor other copies.
+        copy.setHitsPerPage(null);
+        assertEquals("query=foo", copy.build());
+        assertEquals("hitsPerPage=10&page=1&query=foo", query.build());
+        assertEquals("hitsPerPage=10&query=foo", copyOfCopy.build());
+
+        // Further modifications do not copy the parameters again, but still do not leak.
+        copy.setQuery("bar");
+        query.setQuery("baz");
+        assertEquals("query=bar", copy.build());
+        assertEquals("hitsPerPage=10&page=1&query=baz", query.build());
+        assertEquals(new Query("foo").setHitsPerPage(10), copyOfCopy);
+    }
+
+    /** Test that fingerprints identify the serialized form of a query. */
+    @Test
+    public void fingerprint() {
+        Query query = new Query("foo").setHitsPerPage(10);
+        QueryFingerprint fingerprint = query.fingerprint();
+        assertSame(fingerprint, query.fingerprint());
+        assertEquals(fingerprint, Query.parse("hitsPerPage=10&query=foo").fingerprint());
+        assertEquals(fingerprint, new Query(query).fingerprint());
+        assertEquals(QueryFingerprint.EMPTY, new Query().fingerprint());
+
+        // Any change to the serialized form changes the fingerprint.
+        query.setHitsPerPage(10);
+        assertSame(fingerprint, query.fingerprint());
+        query.setHitsPerPage(11);
+        assertFalse(fingerprint.equals(query.fingerprint()));
+        query.setHitsPerPage(10);
+        assertEquals(fingerprint, query.fingerprint());
+
+        // Parameter boundaries and order matter.
+        assertFalse(Query.parse("a=bc").fingerprint().equals(Query.parse("a=b&c").fingerprint()));
+        assertFalse(Query.parse("a=b&c=d").fingerprint().equals(Query.parse("a=d&c=b").fingerprint()));
+    }
+
     /** Test parsing a query from a URL query string. */
     @Test
     public void parse() {
@@ -87,6 +192,21 @@ public class QueryTest extends RobolectricTestCase {
         assertEquals(query, Query.parse(queryString));
     }
 
+    /** Test escaping of characters outside the Basic Multilingual Plane, and lenient parsing. */
+    @Test
+    public void escapeSupplementary() {
+        Query query = new Query();
+        query.set("emoji", "a\uD83D\uDE00b");
+        assertEquals("emoji=a%F0%9F%98%80b", query.build());
+        assertEquals(query, Query.parse(query.build()));
+
+        // `+` is decoded as a space; trailing separators and invalid parameters are ignored.
+        query = Query.parse("a=b+c&d=e=f&g=h%20i&&");
+        assertEquals("b c", query.get("a"));
+        assertNull(query.get("d"));
+        assertEquals("h i", query.get("g"));
+    }
+
     // ----------------------------------------------------------------------
     // Low-level
     // ----------------------------------------------------------------------
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.concurrent.RoboExecutorService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchSessionTest extends RobolectricTestCase {
+    Client client;
+
+    /** Real executor for the tests that need concurrent network calls, if any. */
+    ExecutorService searchExecutorService;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        client = new Client(Helpers.app_id, Helpers.api_key);
+        // WARNING: Robolectric cannot work with custom executors in `AsyncTask`, so we substitute the client's
+        // executors with Robolectric-compliant ones.
+        Whitebox.setInternalState(client, "searchExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "writeExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "longRunningExecutorService", new RoboExecutorService());
+        Whitebox.setInternalState(client, "backgroundExecutorService", new RoboExecutorService());
+        client.setCompletionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (searchExecutorService != null) {
+            searchExecutorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void searchSession() throws Exception {
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallAborted = new CountDownLatch(1);
+        final AtomicInteger callCount = new AtomicInteger();
+        MockTransport transport = new MockTransport(new MockTransport.Responder() {
+            @Override
+            public MockTransport.Response respond(MockTransport.Call call) throws IOException {
+                if (callCount.getAndIncrement() == 0) {
+                    firstCallStarted.countDown();
+                    // Simulate blocking socket I/O, which ignores interruptions: only aborting the connection unblocks it.
+                    while (!call.cancelled) {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            // Ignore.
+                        }
+                    }
+                    firstCallAborted.countDown();
+                    throw new IOException("Connection aborted");
+                }
+                return new MockTransport.Response(200, "{\"hits\": []}");
+            }
+        });
+        client.setTransport(transport);
+        searchExecutorService = Executors.newCachedThreadPool();
+        Whitebox.setInternalState(client, "searchExecutorService", searchExecutorService);
+        SearchSession session = client.getIndex("session").newSearchSession();
+        final List<String> completions = Collections.synchronizedList(new ArrayList<String>());
+
+        // A new search supersedes the previous one, whose connection is aborted and whose handler is never called.
+        Request slowRequest = session.searchAsync(new Query("slow"), new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                completions.add("slow");
+            }
+        });
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        final CountDownLatch fastCompleted = new CountDownLatch(1);
+        session.searchAsync(new Query("fast"), new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                assertTrue(error == null);
+                completions.add("fast");
+                fastCompleted.countDown();
+            }
+        });
+        assertTrue(slowRequest.isCancelled());
+        assertTrue(firstCallAborted.await(5, TimeUnit.SECONDS));
+        assertTrue(fastCompleted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList("fast"), completions);
+        assertEquals(2, session.getSequenceNumber());
+    }
+
+    @Test
+    public void debouncedSearchSession() throws Exception {
+        MockTransport transport = new MockTransport(200, "{\"hits\": []}");
+        client.setTransport(transport);
+        Index index = client.getIndex("debouncing");
+        SearchSession session = index.newSearchSession();
+        session.setDebounceDelay(200);
+        session.setMaxDebounceWait(300);
+        final List<String> completions = new ArrayList<>();
+
+        // A burst of searches results in a single request, for the latest search.
+        for (final String text : new String[] { "f", "fo", "foo" }) {
+            session.searchAsync(new Query(text), new CompletionHandler() {
+                @Override
+                public void requestCompleted(JSONObject content, AlgoliaException error) {
+                    completions.add(text);
+                }
+            });
+        }
+        assertEquals(0, transport.getCalls().size());
+        ShadowLooper.idleMainLooper(200);
+        assertEquals(1, transport.getCalls().size());
+        assertEquals(Collections.singletonList("foo"), completions);
+        assertEquals(2, session.getSuppressedSearchCount());
+
+        // Cached searches are never delayed.
+        index.enableSearchCache();
+        session.searchAsync(new Query("bar"), null);
+        ShadowLooper.idleMainLooper(200);
+        assertEquals(2, transport.getCalls().size());
+        session.searchAsync(new Query("bar"), new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                completions.add("bar");
+            }
+        });
+        assertEquals(Arrays.asList("foo", "bar"), completions);
+        assertEquals(2, transport.getCalls().size());
+
+        // Searches are not delayed beyond the maximum wait since the beginning of the burst.
+        session.searchAsync(new Query("b"), null);
+        Thread.sleep(250);
+        session.searchAsync(new Query("ba"), null);
+        ShadowLooper.idleMainLooper(100);
+        assertEquals(3, transport.getCalls().size());
+        assertEquals(3, session.getSuppressedSearchCount());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the search cache under contention: several threads read from the cache while another one writes
+ * into it, as happens when search results come back while the user keeps typing.
+ */
+@State(Scope.Group)
+public class ExpiringCacheBenchmark {
+    /** Number of distinct keys. Larger than the cache, so that entries get evicted. */
+    private static final int KEY_COUNT = 2 * ExpiringCache.defaultMaxSize;
+
+    private ExpiringCache<QueryFingerprint, byte[]> cache;
+    private QueryFingerprint[] keys;
+    private byte[] value;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        value = new byte[4096];
+        cache = new ExpiringCache<>(60, ExpiringCache.defaultMaxSize);
+        keys = new QueryFingerprint[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            keys[i] = new Query("query " + i).setHitsPerPage(20).fingerprint();
+            cache.put(keys[i], value);
+        }
+    }
+
+    /** Per-thread cursor over the keys. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next() {
+            index = (index + 1) % KEY_COUNT;
+            return index;
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public byte[] get(Cursor cursor) {
+        return cache.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public byte[] put(Cursor cursor) {
+        return cache.put(keys[cursor.next()], value);
+    }
+}
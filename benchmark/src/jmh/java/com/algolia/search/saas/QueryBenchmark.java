@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for building, parsing and copying queries.
+ * The query is typical of a search-as-you-type application: a dozen parameters, some of them array-valued.
+ */
+@State(Scope.Thread)
+public class QueryBenchmark {
+    /** Successive full text queries typed by the user, for the benchmarks that edit a query. */
+    private static final String[] KEYSTROKES = { "mountain bik", "mountain bike" };
+
+    private Query query;
+    private String queryString;
+
+    /** Query edited by {@link #setQueryAndBuild()}. */
+    private Query editedQuery;
+    private int keystroke;
+
+    @Setup
+    public void setUp() {
+        query = newQuery(KEYSTROKES[0]);
+        queryString = query.build();
+        editedQuery = newQuery(KEYSTROKES[0]);
+        editedQuery.build();
+    }
+
+    /**
+     * Create a query from scratch. None of its parameters has been serialized yet.
+     * NOTE: Copies of a query share its serialized parameters, so they cannot be used to measure a cold build.
+     */
+    private static Query newQuery(String text) {
+        return new Query(text)
+                .setHitsPerPage(20)
+                .setPage(0)
+                .setAttributesToRetrieve("name", "brand", "price", "image", "rating")
+                .setAttributesToHighlight("name", "brand")
+                .setAttributesToSnippet("description:20")
+                .setFacets("brand", "category", "color", "price_range")
+                .setFilters("price > 100 AND (category:bikes OR category:accessories)")
+                .setMaxValuesPerFacet(10)
+                .setAroundLatLng(new Query.LatLng(48.8566, 2.3522))
+                .setAroundRadius(50000)
+                .setAnalyticsTags("android", "search-as-you-type")
+                .setGetRankingInfo(false)
+                .setTypoTolerance(Query.TypoTolerance.MIN);
+    }
+
+    /** Build a new query: every parameter is serialized and encoded. */
+    @Benchmark
+    public String buildCold() {
+        return newQuery(KEYSTROKES[0]).build();
+    }
+
+    /** Build a query that was already built: only the memoized string is read. */
+    @Benchmark
+    public String build() {
+        return query.build();
+    }
+
+    /** Change the full text query then build, as search-as-you-type does: only that parameter is encoded again. */
+    @Benchmark
+    public String setQueryAndBuild() {
+        keystroke = (keystroke + 1) % KEYSTROKES.length;
+        return editedQuery.setQuery(KEYSTROKES[keystroke]).build();
+    }
+
+    @Benchmark
+    public Query parseFrom() {
+        return Query.parse(queryString);
+    }
+
+    @Benchmark
+    public Query copy() {
+        return new Query(query);
+    }
+
+    /** Copy then modify, as disjunctive faceting does for each facet. */
+    @Benchmark
+    public Query copyAndModify() {
+        return new Query(query).setHitsPerPage(0);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Generates realistic search responses, for benchmarking purposes.
+ */
+public class SearchResponses {
+    private static final String[] BRANDS = { "Cannondale", "Giant", "Scott", "Specialized", "Trek" };
+    private static final String[] CATEGORIES = { "bikes", "accessories", "clothing", "components", "tools" };
+    private static final String[] COLORS = { "black", "blue", "green", "red", "white", "yellow" };
+
+    /**
+     * Generate the response to a search.
+     *
+     * @param hitCount Number of hits in the response.
+     * @param facets   Names of the facets whose counts are returned.
+     * @return A search response.
+     */
+    public static JSONObject search(int hitCount, String... facets) {
+        try {
+            JSONArray hits = new JSONArray();
+            for (int i = 0; i < hitCount; ++i) {
+                hits.put(hit(i));
+            }
+            JSONObject facetsJSON = new JSONObject();
+            for (String facet : facets) {
+                facetsJSON.put(facet, facetCounts(facet));
+            }
+            return new JSONObject()
+                    .put("hits", hits)
+                    .put("nbHits", 1234)
+                    .put("page", 0)
+                    .put("nbPages", 62)
+                    .put("hitsPerPage", hitCount)
+                    .put("processingTimeMS", 3)
+                    .put("exhaustiveNbHits", true)
+                    .put("exhaustiveFacetsCount", true)
+                    .put("facets", facetsJSON)
+                    .put("query", "mountain bik")
+                    .put("params", "query=mountain%20bik&hitsPerPage=" + hitCount);
+        } catch (JSONException e) {
+            throw new RuntimeException(e); // should never happen
+        }
+    }
+
+    private static JSONObject hit(int i) throws JSONException {
+        final String brand = BRANDS[i % BRANDS.length];
+        final String name = brand + " Mountain Bike " + i;
+        return new JSONObject()
+                .put("objectID", Integer.toString(100000 + i))
+                .put("name", name)
+                .put("brand", brand)
+                .put("description", "A lightweight aluminium frame, hydraulic disc brakes and a 1x12 drivetrain make this bike a great companion for trails of all kinds. Tubeless-ready wheels, dropper post included.")
+                .put("price", 499 + 10 * i)
+                .put("rating", i % 5 + 1)
+                .put("categories", new JSONArray().put(CATEGORIES[0]).put(CATEGORIES[i % CATEGORIES.length]))
+                .put("color", COLORS[i % COLORS.length])
+                .put("image", "https://cdn.example.com/images/products/" + (100000 + i) + "_640x480.jpg")
+                .put("_highlightResult", new JSONObject()
+                        .put("name", highlight(name.replace("Mountain Bike", "<em>Mountain</em> <em>Bik</em>e"), "full", "mountain", "bik"))
+                        .put("brand", highlight(brand, "none")))
+                .put("_snippetResult", new JSONObject()
+                        .put("description", new JSONObject()
+                                .put("value", "... make this <em>bik</em>e a great companion for trails of all kinds ...")
+                                .put("matchLevel", "partial")));
+    }
+
+    private static JSONObject highlight(String value, String matchLevel, String... matchedWords) throws JSONException {
+        JSONArray words = new JSONArray();
+        for (String word : matchedWords) {
+            words.put(word);
+        }
+        return new JSONObject()
+                .put("value", value)
+                .put("matchLevel", matchLevel)
+                .put("fullyHighlighted", false)
+                .put("matchedWords", words);
+    }
+
+    private static JSONObject facetCounts(String facet) throws JSONException {
+        final String[] values = facet.equals("brand") ? BRANDS : facet.equals("color") ? COLORS : CATEGORIES;
+        JSONObject counts = new JSONObject();
+        for (int i = 0; i < values.length; ++i) {
+            counts.put(values[i], 500 - 37 * i);
+        }
+        return counts;
+    }
+}
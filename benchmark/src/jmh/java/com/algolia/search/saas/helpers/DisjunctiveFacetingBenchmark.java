@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas.helpers;
+
+import com.algolia.search.saas.AlgoliaException;
+import com.algolia.search.saas.Query;
+import com.algolia.search.saas.SearchResponses;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks for disjunctive faceting: computing the queries, and aggregating their results.
+ * The setup is typical of a product listing: three disjunctive facets, two of them refined, plus a conjunctive one.
+ */
+@State(Scope.Thread)
+public class DisjunctiveFacetingBenchmark {
+    private Query query;
+    private List<String> disjunctiveFacets;
+    private Map<String, List<String>> refinements;
+    private JSONObject answers;
+
+    @Setup
+    public void setUp() throws JSONException {
+        query = new Query("mountain bik").setHitsPerPage(20).setFacets("brand", "category", "color", "rating");
+        disjunctiveFacets = Arrays.asList("brand", "category", "color");
+        refinements = new HashMap<>();
+        refinements.put("brand", Arrays.asList("Giant", "Trek"));
+        refinements.put("color", Arrays.asList("black", "red", "white"));
+        refinements.put("rating", Arrays.asList("5"));
+
+        // One result for the hits, plus one per disjunctive facet.
+        JSONArray results = new JSONArray().put(SearchResponses.search(20, "brand", "category", "color", "rating"));
+        for (String facet : disjunctiveFacets) {
+            results.put(SearchResponses.search(1, facet));
+        }
+        answers = new JSONObject().put("results", results);
+    }
+
+    @Benchmark
+    public List<Query> computeQueries() {
+        return DisjunctiveFaceting.computeDisjunctiveFacetingQueries(query, disjunctiveFacets, refinements);
+    }
+
+    @Benchmark
+    public JSONObject aggregateResults() throws AlgoliaException {
+        // NOTE: Aggregation adds the disjunctive facets to the first result, but repeating it is idempotent.
+        return DisjunctiveFaceting.aggregateDisjunctiveFacetingResults(answers, disjunctiveFacets, refinements);
+    }
+}
@@ -0,0 +1,2045 @@
+/*
+ * Copyright (c) 2015 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.lang.ref.WeakReference;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An abstract API client.
+ */
+public abstract class AbstractClient {
+    // ----------------------------------------------------------------------
+    // Types
+    // ----------------------------------------------------------------------
+
+    /***
+     * A version of a software library.
+     * Used to construct the <code>User-Agent</code> header.
+     */
+    public static class LibraryVersion {
+        public final @NonNull String name;
+        public final @NonNull String version;
+
+        public LibraryVersion(@NonNull String name, @NonNull String version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof LibraryVersion))
+                return false;
+            LibraryVersion other = (LibraryVersion)object;
+            return this.name.equals(other.name) && this.version.equals(other.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() ^ version.hashCode();
+        }
+    }
+
+    /**
+     * State of the circuit breaker guarding a host.
+     */
+    public enum CircuitState {
+        /** The host is healthy: requests flow normally. */
+        CLOSED,
+        /**
+         * The host has failed repeatedly: requests skip it until the host down delay has elapsed, unless the circuits
+         * of all hosts are open.
+         */
+        OPEN,
+        /** The host down delay has elapsed: a single probe request is let through to test the host. */
+        HALF_OPEN
+    }
+
+    /**
+     * Health of a host, as observed through the requests sent to it.
+     * Besides a circuit breaker, it keeps exponentially weighted moving averages of the host's latency and error rate,
+     * from which a score is derived to rank hosts.
+     * <p>
+     * The circuit opens after {@link #getHostFailureThreshold()} consecutive failures to reach the host. Once the host
+     * down delay has elapsed, it becomes half-open: exactly one request may probe the host. If the probe succeeds, the
+     * circuit closes; otherwise it opens again. When the circuits of all hosts are open, requests do not fail outright:
+     * each probes the host that failed the longest ago, without waiting for the host down delay. Server errors do not
+     * trip the circuit, since the host did answer; they only degrade its score.
+     * </p>
+     * <p>
+     * Requests to the same host may complete concurrently: updates are serialized on the instance, whereas reads are
+     * lock-free and allocation-free. All times are in `System.nanoTime()` units.
+     * </p>
+     */
+    private class HostStatus {
+        final @NonNull String host;
+
+        volatile @NonNull CircuitState circuitState = CircuitState.CLOSED;
+        volatile long lastTryTimestamp;
+
+        /** Whether a probe request is currently in flight (half-open state only). */
+        volatile boolean probeInFlight;
+
+        /** Number of consecutive failures to reach the host. */
+        int consecutiveFailures;
+
+        /** Moving average of the latency (ms), or a negative value if no request has succeeded yet. */
+        volatile double latency = -1;
+
+        /** Moving average of the error rate, between 0 and 1, as of `lastTryTimestamp`. */
+        volatile double errorRate;
+
+        /** Number of requests sent to the host. */
+        final AtomicLong requestCount = new AtomicLong();
+
+        /** Number of requests that failed because of the host. */
+        final AtomicLong errorCount = new AtomicLong();
+
+        /** Number of request body bytes sent to the host. */
+        final AtomicLong bytesSent = new AtomicLong();
+
+        /** Number of response body bytes received from the host. */
+        final AtomicLong bytesReceived = new AtomicLong();
+
+        HostStatus(@NonNull String host) {
+            this.host = host;
+        }
+
+        /**
+         * Ask for permission to send a request to this host.
+         *
+         * @param now Current time (ns).
+         * @return The permission granted.
+         */
+        synchronized @NonNull HostPermit acquire(long now) {
+            switch (circuitState) {
+                case CLOSED:
+                    return HostPermit.GRANTED;
+                case OPEN:
+                    if (now - lastTryTimestamp < TimeUnit.MILLISECONDS.toNanos(hostDownDelay)) {
+                        return HostPermit.DENIED;
+                    }
+                    setCircuitState(CircuitState.HALF_OPEN);
+                    // fall through
+                default:
+                    if (probeInFlight) {
+                        return HostPermit.DENIED;
+                    }
+                    probeInFlight = true;
+                    return HostPermit.PROBE;
+            }
+        }
+
+        /**
+         * Ask for permission to probe this host ahead of time, even though its circuit is open. Used when the
+         * circuits of all hosts are open, so that requests are not failed outright until the host down delay has
+         * elapsed.
+         *
+         * @return The permission granted.
+         */
+        synchronized @NonNull HostPermit acquireProbe() {
+            if (circuitState == CircuitState.CLOSED) {
+                return HostPermit.GRANTED;
+            }
+            if (probeInFlight) {
+                return HostPermit.DENIED;
+            }
+            setCircuitState(CircuitState.HALF_OPEN);
+            probeInFlight = true;
+            return HostPermit.PROBE;
+        }
+
+        /**
+         * Give back a probe permission that ended without telling anything about the host (e.g. cancelled request),
+         * so that another request may probe the host.
+         */
+        synchronized void releaseProbe() {
+            probeInFlight = false;
+        }
+
+        /**
+         * Record a successful request.
+         *
+         * @param now     Current time (ns).
+         * @param latency The request's latency (ms).
+         */
+        synchronized void recordSuccess(long now, long latency) {
+            this.latency = this.latency < 0 ? latency : this.latency + LATENCY_EWMA_WEIGHT * (latency - this.latency);
+            errorRate = (1 - ERROR_RATE_EWMA_WEIGHT) * errorRate(now);
+            lastTryTimestamp = now;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            setCircuitState(CircuitState.CLOSED);
+        }
+
+        /**
+         * Record a failed request.
+         *
+         * @param now       Current time (ns).
+         * @param reachable Whether the host did answer (e.g. with a server error), as opposed to being unreachable.
+         */
+        synchronized void recordFailure(long now, boolean reachable) {
+            errorRate = (1 - ERROR_RATE_EWMA_WEIGHT) * errorRate(now) + ERROR_RATE_EWMA_WEIGHT;
+            lastTryTimestamp = now;
+            probeInFlight = false;
+            if (reachable) {
+                consecutiveFailures = 0;
+                setCircuitState(CircuitState.CLOSED);
+            } else {
+                consecutiveFailures += 1;
+                if (circuitState != CircuitState.CLOSED || consecutiveFailures >= hostFailureThreshold) {
+                    setCircuitState(CircuitState.OPEN);
+                }
+            }
+        }
+
+        private void setCircuitState(@NonNull CircuitState newState) {
+            final CircuitState oldState = circuitState;
+            if (newState != oldState) {
+                circuitState = newState;
+                // NOTE: Notifying while holding the lock guarantees that listeners see transitions in order.
+                fireCircuitStateChanged(host, oldState, newState);
+            }
+        }
+
+        /**
+         * Compute the error rate at a given time. Errors are progressively forgotten, so that a host which is no
+         * longer tried (because it ranks last) eventually gets a chance again.
+         *
+         * @param now Current time (ns).
+         * @return The error rate, between 0 and 1.
+         */
+        double errorRate(long now) {
+            return errorRate * Math.pow(0.5, (double) Math.max(0, now - lastTryTimestamp) / ERROR_RATE_HALF_LIFE);
+        }
+
+        /**
+         * Compute the score of this host. The lower, the better.
+         *
+         * @param now          Current time (ns).
+         * @param errorPenalty Cost of an error, as an equivalent latency (ms).
+         * @return The score, homogeneous to a latency (ms).
+         */
+        double score(long now, double errorPenalty) {
+            final double latency = this.latency;
+            return (latency < 0 ? DEFAULT_HOST_LATENCY : latency) + errorRate(now) * errorPenalty;
+        }
+    }
+
+    /**
+     * Permission to send a request to a host.
+     */
+    private enum HostPermit {
+        /** The host's circuit is open, or another request is already probing it. */
+        DENIED,
+        /** The host is healthy. */
+        GRANTED,
+        /** The request is the single probe of a half-open circuit. */
+        PROBE
+    }
+
+    // ----------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------
+
+    /** This library's version. */
+    private final static String version = "3.12.0";
+
+    /** Number of read latencies kept to compute the hedging delay. */
+    private final static int LATENCY_SAMPLE_COUNT = 128;
+
+    /** Minimum number of read latencies observed before the hedging delay is derived from them. */
+    private final static int MIN_HEDGING_SAMPLE_COUNT = 16;
+
+    /** Lower bound for the hedging delay (ms). */
+    private final static int MIN_HEDGING_DELAY = 20;
+
+    /** Weight of a new sample in the moving average of a host's latency. */
+    private final static double LATENCY_EWMA_WEIGHT = 0.3;
+
+    /** Weight of a new sample in the moving average of a host's error rate. */
+    private final static double ERROR_RATE_EWMA_WEIGHT = 0.2;
+
+    /** Time after which half of a host's past errors are forgotten (ns). */
+    private final static long ERROR_RATE_HALF_LIFE = TimeUnit.MINUTES.toNanos(1);
+
+    /** Latency assumed for a host that has not answered yet (ms). */
+    private final static double DEFAULT_HOST_LATENCY = 500;
+
+    /** Maximum total size of the response buffers kept for reuse (bytes). */
+    private final static int BUFFER_POOL_CAPACITY = 1024 * 1024;
+
+    /** Value of a deadline meaning that a request is not time-bound. */
+    private final static long NO_DEADLINE = 0;
+
+    /** Size of the buffer used to compress request bodies (bytes). */
+    private final static int GZIP_BUFFER_SIZE = 8192;
+
+    /** Number of read hosts connected to ahead of time by {@link #warmUpAsync(CompletionHandler)}. */
+    private final static int WARM_UP_HOST_COUNT = 2;
+
+    /** Default minimum size of a request body for it to be compressed (characters). */
+    public final static int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = 1024;
+
+    // ----------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------
+
+    /**
+     * The user agents as a raw string. This is what is passed in request headers.
+     * WARNING: It is stored for efficiency purposes. It should not be modified directly.
+     */
+    private String userAgentRaw;
+
+    /** The user agents, as a structured list of library versions. */
+    private List<LibraryVersion> userAgents = new ArrayList<>();
+
+    /** Connect timeout (ms). */
+    private int connectTimeout = 2000;
+
+    /** Default read (receive) timeout (ms). */
+    private int readTimeout = 30000;
+
+    /** Read timeout for search requests (ms). */
+    private int searchTimeout = 5000;
+
+    /** Default end-to-end timeout of a request, across all hosts (ms). 0 means no limit. */
+    private int requestTimeout = 0;
+
+    /**
+     * Deadline of the request being executed on the current thread (in `System.nanoTime()` units), if any.
+     * Set by {@link AsyncTaskRequest} so that all network calls made on its behalf share the same time budget.
+     */
+    private final ThreadLocal<Long> currentDeadline = new ThreadLocal<>();
+
+    /**
+     * Cancellable call of the request being executed on the current thread, if any.
+     * Set by {@link AsyncTaskRequest} so that cancelling it aborts the connection in use.
+     */
+    private final ThreadLocal<CancellableCall> currentCall = new ThreadLocal<>();
+
+    /** Delay to wait when a host is down before retrying it (ms). */
+    private int hostDownDelay = 5000;
+
+    /** Number of consecutive failures to reach a host after which it is considered down. */
+    private int hostFailureThreshold = 1;
+
+    /** Listeners notified of changes in the hosts' circuit state. */
+    private final Set<CircuitBreakerListener> circuitBreakerListeners = new CopyOnWriteArraySet<>();
+
+    /** Latencies of the asynchronous operations performed by this client. */
+    final OperationLatencies latencies = new OperationLatencies();
+
+    /** Listener notified of the phases of each network call, if any. */
+    private volatile RequestEventListener requestEventListener;
+
+    /** Source of call IDs for {@link #requestEventListener}. */
+    private final AtomicLong nextCallId = new AtomicLong();
+
+    /**
+     * ID of the call in progress on the current thread, if it was started by {@link #_startCall}.
+     * Network requests made while it is set are reported as part of that call, instead of as calls of their own.
+     */
+    private final ThreadLocal<Long> currentCallId = new ThreadLocal<>();
+
+    /** Whether read requests are hedged across read hosts. */
+    private boolean hedgingEnabled = false;
+
+    /** Percentile of recent read latencies after which a read request is hedged. */
+    private double hedgingPercentile = 0.95;
+
+    /** Hedging delay used until enough read latencies have been observed (ms). */
+    private int initialHedgingDelay = 1000;
+
+    /** Whether request bodies are compressed. */
+    private boolean requestCompressionEnabled = false;
+
+    /** Minimum size of a request body for it to be compressed (characters). */
+    private int requestCompressionThreshold = DEFAULT_REQUEST_COMPRESSION_THRESHOLD;
+
+    /** Latencies of the most recent successful read requests. */
+    private final LatencyTracker readLatencies = new LatencyTracker(LATENCY_SAMPLE_COUNT);
+
+    private final String applicationID;
+    private final String apiKey;
+    private List<String> readHosts;
+    private List<String> writeHosts;
+    /** Health of the hosts, updated concurrently by all requests. */
+    private final ConcurrentHashMap<String, HostStatus> hostStatuses = new ConcurrentHashMap<>();
+
+    /** Recycled response buffers. */
+    private final ByteArrayPool bufferPool = new ByteArrayPool(BUFFER_POOL_CAPACITY);
+
+    /** Policy governing retries on the next host. */
+    private @NonNull RetryPolicy retryPolicy = new RetryPolicy();
+
+    /** HTTP stack used to send requests. */
+    private @NonNull Transport transport = new HttpURLConnectionTransport();
+
+    /**
+     * HTTP headers that will be sent with every request.
+     */
+    private HashMap<String, String> headers = new HashMap<String, String>();
+
+    // NOTE: Requests run in separate lanes, each with its own thread pool, so that slow or bulk operations never hold
+    // the threads that interactive searches need.
+
+    /** Thread pool used to run interactive read requests (searches, object retrieval...). */
+    protected ExecutorService searchExecutorService = Executors.newFixedThreadPool(4);
+
+    /** Thread pool used to run write requests. */
+    protected ExecutorService writeExecutorService = Executors.newFixedThreadPool(2);
+
+    /**
+     * Thread pool used to run long-running operations (browsing, waiting for tasks...). Since these operations spend
+     * most of their time waiting, threads are created on demand.
+     */
+    protected ExecutorService longRunningExecutorService = Executors.newCachedThreadPool();
+
+    /** Thread pool used to run background work (warm-up...), one operation at a time. */
+    protected ExecutorService backgroundExecutorService = Executors.newSingleThreadExecutor();
+
+    /** Thread pool used to run the parallel network calls of hedged requests and warm-ups. */
+    protected ExecutorService hedgingExecutorService = Executors.newCachedThreadPool();
+
+    /**
+     * Executor used to run completion handlers. By default, runs on the main thread (on a dedicated thread outside
+     * Android).
+     */
+    protected @NonNull Executor completionExecutor = Platform.get().newCompletionExecutor();
+
+    protected Map<String, WeakReference<Object>> indices = new HashMap<>();
+
+    // ----------------------------------------------------------------------
+    // Initialization
+    // ----------------------------------------------------------------------
+
+    /**
+     * Create a new client.
+     *
+     * @param applicationID [optional] The application ID.
+     * @param apiKey [optional] A valid API key for the service.
+     * @param readHosts List of hosts for read operations.
+     * @param writeHosts List of hosts for write operations.
+     */
+    protected AbstractClient(@Nullable String applicationID, @Nullable String apiKey, @Nullable String[] readHosts, @Nullable String[] writeHosts) {
+        this.applicationID = applicationID;
+        this.apiKey = apiKey;
+        this.addUserAgent(new LibraryVersion("Algolia for Android", version));
+        this.addUserAgent(Platform.get().getSystemVersion());
+        if (readHosts != null)
+            setReadHosts(readHosts);
+        if (writeHosts != null)
+            setWriteHosts(writeHosts);
+    }
+
+    // ----------------------------------------------------------------------
+    // Accessors
+    // ----------------------------------------------------------------------
+
+    public String getApplicationID() {
+        return applicationID;
+    }
+
+    /**
+     * Set an HTTP header that will be sent with every request.
+     *
+     * @param name  Header name.
+     * @param value Value for the header. If null, the header will be removed.
+     */
+    public void setHeader(@NonNull String name, @Nullable String value) {
+        if (value == null) {
+            headers.remove(name);
+        } else {
+            headers.put(name, value);
+        }
+    }
+
+    /**
+     * Get an HTTP header.
+     *
+     * @param name Header name.
+     */
+    public String getHeader(@NonNull String name) {
+        return headers.get(name);
+    }
+
+    public String[] getReadHosts() {
+        return readHosts.toArray(new String[readHosts.size()]);
+    }
+
+    public void setReadHosts(@NonNull String... hosts) {
+        if (hosts.length == 0) {
+            throw new IllegalArgumentException("Hosts array cannot be empty");
+        }
+        readHosts = Arrays.asList(hosts);
+    }
+
+    public String[] getWriteHosts() {
+        return writeHosts.toArray(new String[writeHosts.size()]);
+    }
+
+    public void setWriteHosts(@NonNull String... hosts) {
+        if (hosts.length == 0) {
+            throw new IllegalArgumentException("Hosts array cannot be empty");
+        }
+        writeHosts = Arrays.asList(hosts);
+    }
+
+    /**
+     * Set read and write hosts to the same value (convenience method).
+     *
+     * @param hosts New hosts. Must not be empty.
+     */
+    public void setHosts(@NonNull String... hosts) {
+        setReadHosts(hosts);
+        setWriteHosts(hosts);
+    }
+
+    /**
+     * Get the connection timeout.
+     *
+     * @return The connection timeout (ms).
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Set the connection timeout.
+     *
+     * @param connectTimeout The new connection timeout (ms).
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        checkTimeout(connectTimeout);
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Get the default read timeout.
+     *
+     * @return The default read timeout (ms).
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Set the default read timeout.
+     *
+     * @param readTimeout The default read timeout (ms).
+     */
+    public void setReadTimeout(int readTimeout) {
+        checkTimeout(readTimeout);
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Get the read timeout for search requests.
+     *
+     * @return The read timeout for search requests (ms).
+     */
+    public int getSearchTimeout() {
+        return searchTimeout;
+    }
+
+    /**
+     * Set the read timeout for search requests.
+     *
+     * @param searchTimeout The read timeout for search requests (ms).
+     */
+    public void setSearchTimeout(int searchTimeout) {
+        checkTimeout(searchTimeout);
+        this.searchTimeout = searchTimeout;
+    }
+
+    /**
+     * Get the default end-to-end timeout of requests.
+     *
+     * @return The request timeout (ms), or 0 if requests are not time-bound.
+     */
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Set the default end-to-end timeout of requests.
+     * <p>
+     * The connect and read timeouts apply to each host separately, so that a request failing on all hosts may take
+     * several times as long. This timeout bounds the whole request instead: all host attempts share the same time
+     * budget, and each attempt's timeouts are cut to what remains of it. It can be overridden per call via
+     * {@link RequestOptions#setTimeout(int)}.
+     * </p>
+     *
+     * @param requestTimeout The request timeout (ms), or 0 for no limit (default).
+     */
+    public void setRequestTimeout(int requestTimeout) {
+        if (requestTimeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Get the timeout for retrying connection to a down host.
+     *
+     * @return The delay before connecting again to a down host (ms).
+     */
+    public int getHostDownDelay() {
+        return hostDownDelay;
+    }
+
+    /**
+     * Set the timeout for retrying connection to a down host.
+     *
+     * @param hostDownDelay The delay before connecting again to a down host (ms).
+     */
+    public void setHostDownDelay(int hostDownDelay) {
+        checkTimeout(hostDownDelay);
+        this.hostDownDelay = hostDownDelay;
+    }
+
+    /**
+     * Get the number of consecutive failures to reach a host after which it is considered down.
+     *
+     * @return The host failure threshold.
+     */
+    public int getHostFailureThreshold() {
+        return hostFailureThreshold;
+    }
+
+    /**
+     * Set the number of consecutive failures to reach a host after which it is considered down.
+     * <p>
+     * A down host is skipped by all requests until the host down delay (see {@link #getHostDownDelay()}) has elapsed.
+     * Then a single request probes it: if the probe succeeds, the host is considered up again; otherwise it stays down
+     * for another delay. Server errors do not count as failures, since the host did answer.
+     * </p>
+     *
+     * @param hostFailureThreshold The new host failure threshold. Must be positive. Default is 1.
+     */
+    public void setHostFailureThreshold(int hostFailureThreshold) {
+        if (hostFailureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.hostFailureThreshold = hostFailureThreshold;
+    }
+
+    /**
+     * Get the circuit state of a host.
+     *
+     * @param host The host.
+     * @return The host's circuit state. Hosts never tried so far are in the {@link CircuitState#CLOSED} state.
+     */
+    public @NonNull CircuitState getCircuitState(@NonNull String host) {
+        final HostStatus status = hostStatuses.get(host);
+        return status == null ? CircuitState.CLOSED : status.circuitState;
+    }
+
+    /**
+     * Get the traffic with each host contacted so far.
+     *
+     * @return Metrics for each host, by host name.
+     */
+    public @NonNull Map<String, HostMetrics> getHostMetrics() {
+        Map<String, HostMetrics> metrics = new HashMap<>();
+        for (HostStatus status : hostStatuses.values()) {
+            metrics.put(status.host, new HostMetrics(status.host, status.requestCount.get(), status.errorCount.get(), status.bytesSent.get(), status.bytesReceived.get()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Get the latencies of the asynchronous operations performed by this client, per type of operation.
+     * Latencies are measured from the moment an operation is started until its result is available, including any
+     * time spent waiting for an executor thread, retrying or decoding the response. Operations performed by an
+     * index are recorded by the index (see {@link Index#getLatencyMetrics()}).
+     *
+     * @return Latency snapshots, for the types of operations performed so far.
+     */
+    public @NonNull Map<OperationType, LatencySnapshot> getLatencyMetrics() {
+        return latencies.snapshot();
+    }
+
+    /**
+     * Add a listener for changes in the hosts' circuit state.
+     *
+     * @param listener The listener to add.
+     */
+    public void addCircuitBreakerListener(@NonNull CircuitBreakerListener listener) {
+        circuitBreakerListeners.add(listener);
+    }
+
+    /**
+     * Remove a listener for changes in the hosts' circuit state.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeCircuitBreakerListener(@NonNull CircuitBreakerListener listener) {
+        circuitBreakerListeners.remove(listener);
+    }
+
+    /**
+     * Get the listener notified of the phases of each network call.
+     *
+     * @return The listener, or null if none.
+     */
+    public @Nullable RequestEventListener getRequestEventListener() {
+        return requestEventListener;
+    }
+
+    /**
+     * Set the listener notified of the phases of each network call.
+     * The listener is called synchronously on the networking threads; see {@link RequestEventListener}.
+     *
+     * @param listener The listener, or null to remove it.
+     */
+    public void setRequestEventListener(@Nullable RequestEventListener listener) {
+        this.requestEventListener = listener;
+    }
+
+    /**
+     * Test whether read requests are hedged.
+     *
+     * @return true if hedging is enabled, false otherwise.
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * Enable or disable hedging of read requests.
+     * <p>
+     * When enabled, if the first read host has not answered a read request after the hedging delay (see
+     * {@link #getHedgingDelay()}), a duplicate request is sent to the next host. The first response wins, and the
+     * other request is cancelled. This trades a few extra requests for a lower tail latency on flaky networks.
+     * </p>
+     *
+     * @param hedgingEnabled true to enable hedging, false to disable it (default).
+     */
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    /**
+     * Get the percentile of recent read latencies after which a read request is hedged.
+     *
+     * @return The hedging percentile, between 0 and 1.
+     */
+    public double getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    /**
+     * Set the percentile of recent read latencies after which a read request is hedged.
+     * For example, 0.95 (the default) means that roughly 5% of read requests are hedged.
+     *
+     * @param hedgingPercentile The new hedging percentile, between 0 (exclusive) and 1 (inclusive).
+     */
+    public void setHedgingPercentile(double hedgingPercentile) {
+        if (hedgingPercentile <= 0 || hedgingPercentile > 1) {
+            throw new IllegalArgumentException("Percentile must be within ]0, 1]");
+        }
+        this.hedgingPercentile = hedgingPercentile;
+    }
+
+    /**
+     * Get the hedging delay used until enough read latencies have been observed.
+     *
+     * @return The initial hedging delay (ms).
+     */
+    public int getInitialHedgingDelay() {
+        return initialHedgingDelay;
+    }
+
+    /**
+     * Set the hedging delay used until enough read latencies have been observed.
+     *
+     * @param initialHedgingDelay The initial hedging delay (ms).
+     */
+    public void setInitialHedgingDelay(int initialHedgingDelay) {
+        checkTimeout(initialHedgingDelay);
+        this.initialHedgingDelay = initialHedgingDelay;
+    }
+
+    /**
+     * Get the current hedging delay, i.e. the time after which a pending read request is duplicated to the next
+     * host. It is derived from the latencies of recent read requests (see {@link #getHedgingPercentile()}).
+     *
+     * @return The current hedging delay (ms).
+     */
+    public long getHedgingDelay() {
+        if (readLatencies.size() < MIN_HEDGING_SAMPLE_COUNT) {
+            return initialHedgingDelay;
+        }
+        return Math.max(MIN_HEDGING_DELAY, readLatencies.percentile(hedgingPercentile));
+    }
+
+    /**
+     * Test whether request bodies are compressed.
+     *
+     * @return true if request compression is enabled, false otherwise.
+     */
+    public boolean isRequestCompressionEnabled() {
+        return requestCompressionEnabled;
+    }
+
+    /**
+     * Enable or disable compression of request bodies.
+     * <p>
+     * When enabled, request bodies larger than the compression threshold (see
+     * {@link #getRequestCompressionThreshold()}) are sent gzip-compressed, which considerably speeds up large batches
+     * on slow uplinks. Bodies are compressed on the fly, so they are never held in memory in compressed form.
+     * </p>
+     *
+     * @param requestCompressionEnabled true to enable compression, false to disable it (default).
+     */
+    public void setRequestCompressionEnabled(boolean requestCompressionEnabled) {
+        this.requestCompressionEnabled = requestCompressionEnabled;
+    }
+
+    /**
+     * Get the minimum size of a request body for it to be compressed.
+     *
+     * @return The compression threshold (characters).
+     */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Set the minimum size of a request body for it to be compressed.
+     * Compressing small bodies costs more CPU than it saves bandwidth.
+     *
+     * @param requestCompressionThreshold The new compression threshold (characters).
+     */
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        if (requestCompressionThreshold < 0) {
+            throw new IllegalArgumentException("Compression threshold cannot be negative");
+        }
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /**
+     * Get the policy governing retries.
+     *
+     * @return The retry policy used by this client.
+     */
+    public @NonNull RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Change the policy governing retries, i.e. how and when a failed request is retried on the next host.
+     * See {@link RetryPolicy}.
+     *
+     * @param retryPolicy The new retry policy.
+     */
+    public void setRetryPolicy(@NonNull RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the transport used to send HTTP requests.
+     *
+     * @return The transport used by this client.
+     */
+    public @NonNull Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Change the transport used to send HTTP requests.
+     * By default, an {@link HttpURLConnectionTransport} is used. You may use this method to plug in your own HTTP
+     * stack.
+     *
+     * @param transport The new transport to use.
+     */
+    public void setTransport(@NonNull Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Add a software library to the list of user agents.
+     *
+     * @param userAgent The library to add.
+     */
+    public void addUserAgent(@NonNull LibraryVersion userAgent) {
+        userAgents.add(userAgent);
+        updateUserAgents();
+    }
+
+    /**
+     * Remove a software library from the list of user agents.
+     *
+     * @param userAgent The library to remove.
+     */
+    public void removeUserAgent(@NonNull LibraryVersion userAgent) {
+        userAgents.remove(userAgent);
+        updateUserAgents();
+    }
+
+    /**
+     * Retrieve the list of declared user agents.
+     *
+     * @return The declared user agents.
+     */
+    public @NonNull LibraryVersion[] getUserAgents() {
+        return userAgents.toArray(new LibraryVersion[userAgents.size()]);
+    }
+
+    /**
+     * Test whether a user agent is declared.
+     *
+     * @param userAgent The user agent to look for.
+     * @return true if it is declared on this client, false otherwise.
+     */
+    public boolean hasUserAgent(@NonNull LibraryVersion userAgent) {
+        return userAgents.contains(userAgent);
+    }
+
+    private void updateUserAgents() {
+        StringBuilder s = new StringBuilder();
+        for (LibraryVersion userAgent : userAgents) {
+            if (s.length() != 0) {
+                s.append("; ");
+            }
+            s.append(userAgent.name);
+            s.append(" (");
+            s.append(userAgent.version);
+            s.append(")");
+        }
+        userAgentRaw = s.toString();
+    }
+
+    private List<String> getReadHostsThatAreUp() {
+        return hostsThatAreUp(readHosts);
+    }
+
+    private List<String> getWriteHostsThatAreUp() {
+        return hostsThatAreUp(writeHosts);
+    }
+
+    /**
+     * Change the executor on which completion handlers are executed.
+     * By default, completion handlers are executed on the main thread; outside Android, on a dedicated thread.
+     *
+     * @param completionExecutor The new completion executor to use.
+     */
+    public void setCompletionExecutor(@NonNull Executor completionExecutor) {
+        this.completionExecutor = completionExecutor;
+    }
+
+    // ----------------------------------------------------------------------
+    // Warm-up
+    // ----------------------------------------------------------------------
+
+    /**
+     * Connect to the best read hosts ahead of time, in the background.
+     * <p>
+     * The first request to a host pays for the DNS resolution and the TCP and TLS handshakes, which typically makes
+     * the first search noticeably slower than the next ones. Calling this method early (e.g. when the search screen
+     * is created) pays that price before the user starts typing: the connections are then kept alive by the
+     * transport, ready for the next requests. It also tells which hosts are reachable, so that requests skip the
+     * unreachable ones from the start.
+     * </p>
+     * <p>
+     * The result lists, for each host, the time it took to connect and answer (`timeMS`), or the error encountered
+     * (`error`). The request fails only if no host could be reached.
+     * </p>
+     *
+     * @param completionHandler The listener that will be notified of the request's outcome. May be null.
+     * @return A cancellable request.
+     */
+    public Request warmUpAsync(@Nullable CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, backgroundExecutorService) {
+            @NonNull
+            @Override
+            protected JSONObject run() throws AlgoliaException {
+                return warmUp();
+            }
+        }.start();
+    }
+
+    /**
+     * Connect to the best read hosts, in parallel. See {@link #warmUpAsync(CompletionHandler)}.
+     *
+     * @return The time it took to connect to each host.
+     * @throws AlgoliaException if no host could be reached.
+     */
+    protected JSONObject warmUp() throws AlgoliaException {
+        final List<String> hosts = getReadHostsThatAreUp();
+        final List<Future<Long>> futures = new ArrayList<>(WARM_UP_HOST_COUNT);
+        for (final String host : hosts.subList(0, Math.min(WARM_UP_HOST_COUNT, hosts.size()))) {
+            futures.add(hedgingExecutorService.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    return _warmUpHost(host);
+                }
+            }));
+        }
+        List<Exception> errors = new ArrayList<>(futures.size());
+        try {
+            JSONArray results = new JSONArray();
+            boolean anySucceeded = false;
+            for (int i = 0; i < futures.size(); ++i) {
+                JSONObject result = new JSONObject().put("host", hosts.get(i));
+                try {
+                    Long time = futures.get(i).get();
+                    if (time != null) {
+                        result.put("timeMS", time.longValue());
+                        anySucceeded = true;
+                    } else {
+                        result.put("error", "Host is down");
+                    }
+                } catch (ExecutionException e) {
+                    result.put("error", e.getCause().getMessage());
+                    errors.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+                results.put(result);
+            }
+            if (!anySucceeded) {
+                throw _allHostsFailed(errors);
+            }
+            return new JSONObject().put("hosts", results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AlgoliaException("Request interrupted", e);
+        } catch (JSONException e) {
+            throw new RuntimeException(e); // should never happen
+        } finally {
+            for (Future<Long> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Connect to a host, by sending it a lightweight request.
+     *
+     * @param host the host to connect to
+     * @return the time it took to get an answer (ms), or null if the host is down
+     * @throws IOException if the host could not be reached
+     */
+    private @Nullable Long _warmUpHost(String host) throws IOException {
+        final HostPermit permit = getHostStatus(host).acquire(System.nanoTime());
+        if (permit == HostPermit.DENIED) {
+            return null;
+        }
+        final List<Exception> errors = new ArrayList<>(1);
+        final long startTime = System.nanoTime();
+        // NOTE: Any answer, even an error, means that the connection is established.
+        try {
+            ResponseBuffer body = _requestHost(Method.GET, host, "/1/isalive", null, connectTimeout, searchTimeout, errors, permit == HostPermit.PROBE, null, null, 0);
+            if (body != null) {
+                body.release();
+            } else if (errors.get(0) instanceof IOException) {
+                throw (IOException) errors.get(0);
+            }
+        } catch (AlgoliaException e) {
+            // Client error: ignore.
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    // ----------------------------------------------------------------------
+    // Utilities
+    // ----------------------------------------------------------------------
+
+    /**
+     * HTTP method.
+     */
+    private enum Method {
+        GET, POST, PUT, DELETE
+    }
+
+    protected byte[] getRequestRaw(String url, boolean search) throws AlgoliaException {
+        return _requestRaw(Method.GET, url, null, true, connectTimeout, search ? searchTimeout : readTimeout);
+    }
+
+    protected JSONObject getRequest(String url, boolean search) throws AlgoliaException {
+        return _request(Method.GET, url, null, true, connectTimeout, search ? searchTimeout : readTimeout);
+    }
+
+    protected JSONObject deleteRequest(String url) throws AlgoliaException {
+        return _request(Method.DELETE, url, null, false, connectTimeout, readTimeout);
+    }
+
+    protected JSONObject postRequest(String url, String obj, boolean readOperation) throws AlgoliaException {
+        return _request(Method.POST, url, obj, readOperation, connectTimeout, (readOperation ? searchTimeout : readTimeout));
+    }
+
+    protected byte[] postRequestRaw(String url, String obj, boolean readOperation) throws AlgoliaException {
+        return _requestRaw(Method.POST, url, obj, readOperation, connectTimeout, (readOperation ? searchTimeout : readTimeout));
+    }
+
+    protected JSONObject putRequest(String url, String obj) throws AlgoliaException {
+        return _request(Method.PUT, url, obj, false, connectTimeout, readTimeout);
+    }
+
+    protected static JSONObject _getJSONObject(String input) throws JSONException {
+        return new JSONObject(new JSONTokener(input));
+    }
+
+    protected static JSONObject _getJSONObject(byte[] array) throws JSONException, UnsupportedEncodingException {
+        return new JSONObject(new String(array, "UTF-8"));
+    }
+
+    /**
+     * Send the query according to parameters and returns its result as a JSONObject
+     *
+     * @param m              HTTP Method to use
+     * @param url            endpoint URL
+     * @param json           optional JSON Object to send
+     * @param readOperation  true to target the read hosts, false to target the write hosts
+     * @param connectTimeout maximum wait time to open connection
+     * @param readTimeout    maximum time to read data on socket
+     * @return a JSONObject containing the resulting data or error
+     * @throws AlgoliaException if the request data is not valid json
+     */
+    private JSONObject _request(Method m, String url, String json, boolean readOperation, int connectTimeout, int readTimeout) throws AlgoliaException {
+        final RequestEventListener listener = requestEventListener;
+        final long callId = listener == null ? 0 : nextCallId.incrementAndGet();
+        AlgoliaException error = null;
+        try {
+            if (listener != null) {
+                listener.callStart(callId, m.name(), url);
+            }
+            ResponseBuffer body = _requestBuffered(m, url, json, readOperation, connectTimeout, readTimeout, listener, callId);
+            try {
+                final JSONObject result = body.toJSONObject();
+                if (listener != null) {
+                    listener.jsonParsed(callId, body.size());
+                }
+                return result;
+            } catch (JSONException e) {
+                throw new AlgoliaException("JSON decode error:" + e.getMessage());
+            } finally {
+                body.release();
+            }
+        } catch (AlgoliaException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (listener != null) {
+                listener.callEnd(callId, error);
+            }
+        }
+    }
+
+    /**
+     * Send the query according to parameters and returns its result as a byte array
+     *
+     * @param m              HTTP Method to use
+     * @param url            endpoint URL
+     * @param json           optional JSON Object to send
+     * @param readOperation  true to target the read hosts, false to target the write hosts
+     * @param connectTimeout maximum wait time to open connection
+     * @param readTimeout    maximum time to read data on socket
+     * @return the raw response
+     * @throws AlgoliaException in case of connection or data handling error
+     */
+    private byte[] _requestRaw(Method m, String url, String json, boolean readOperation, int connectTimeout, int readTimeout) throws AlgoliaException {
+        final RequestEventListener listener = requestEventListener;
+        final Long enclosingCallId = currentCallId.get();
+        if (enclosingCallId != null) {
+            // The caller reports the start and end of the call.
+            return _requestBuffered(m, url, json, readOperation, connectTimeout, readTimeout, listener, enclosingCallId).toByteArray();
+        }
+        final long callId = listener == null ? 0 : nextCallId.incrementAndGet();
+        AlgoliaException error = null;
+        try {
+            if (listener != null) {
+                listener.callStart(callId, m.name(), url);
+            }
+            return _requestBuffered(m, url, json, readOperation, connectTimeout, readTimeout, listener, callId).toByteArray();
+        } catch (AlgoliaException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (listener != null) {
+                listener.callEnd(callId, error);
+            }
+        }
+    }
+
+    /**
+     * Start a call spanning more than a network request (e.g. a search going through a cache, then decoded), and
+     * report it to the request event listener. Raw requests made on the current thread until {@link #_endCall} is
+     * invoked are reported as part of this call.
+     *
+     * @param listener the listener to notify
+     * @param method   the HTTP method of the underlying network request
+     * @param path     the path of the underlying network request, including the query string
+     * @return the call's ID
+     */
+    long _startCall(@NonNull RequestEventListener listener, @NonNull String method, @NonNull String path) {
+        final long callId = nextCallId.incrementAndGet();
+        currentCallId.set(callId);
+        listener.callStart(callId, method, path);
+        return callId;
+    }
+
+    /**
+     * End a call started by {@link #_startCall}, and report it to the request event listener.
+     *
+     * @param listener the listener to notify
+     * @param callId   the call's ID
+     * @param error    the error that made the call fail, or null if it succeeded
+     */
+    void _endCall(@NonNull RequestEventListener listener, long callId, @Nullable AlgoliaException error) {
+        currentCallId.remove();
+        listener.callEnd(callId, error);
+    }
+
+    /**
+     * Send the query according to parameters and returns its result, still undecoded
+     *
+     * @param m              HTTP Method to use
+     * @param url            endpoint URL
+     * @param json           optional JSON Object to send
+     * @param readOperation  true to target the read hosts, false to target the write hosts
+     * @param connectTimeout maximum wait time to open connection
+     * @param readTimeout    maximum time to read data on socket
+     * @param listener       listener notified of the call's phases, if any
+     * @param callId         ID of the call, as reported to the listener
+     * @return the response body
+     * @throws AlgoliaException in case of connection or data handling error
+     */
+    private ResponseBuffer _requestBuffered(Method m, String url, String json, boolean readOperation, int connectTimeout, int readTimeout, @Nullable RequestEventListener listener, long callId) throws AlgoliaException {
+        List<String> hostsArray = readOperation ? getReadHostsThatAreUp() : getWriteHostsThatAreUp();
+        // When all circuits are open, probe the host that failed the longest ago rather than failing right away:
+        // the failures may have been a short-lived connectivity loss.
+        final String probedHost = hostsArray.isEmpty() ? leastRecentlyFailedHost(readOperation ? readHosts : writeHosts) : null;
+        if (probedHost != null) {
+            hostsArray = Collections.singletonList(probedHost);
+        }
+        final long deadline = _getDeadline();
+        if (readOperation && hedgingEnabled && hostsArray.size() > 1) {
+            return _requestHedged(m, url, json, hostsArray, connectTimeout, readTimeout, deadline, listener, callId);
+        }
+        final RetryPolicy retryPolicy = this.retryPolicy;
+        final CancellableCall call = currentCall.get();
+        retryPolicy.onRequest();
+        List<Exception> errors = new ArrayList<>(hostsArray.size());
+        int attemptCount = 0;
+        // for each host
+        for (final String host : hostsArray) {
+            // Skip hosts that are down (circuit open).
+            if (probedHost == null && !isUpOrCouldBeRetried(host)) {
+                continue;
+            }
+            if (attemptCount > 0) {
+                // This is a retry: check the retry budget, and back off.
+                if (!retryPolicy.tryRetry()) {
+                    break;
+                }
+                final Exception lastError = errors.get(errors.size() - 1);
+                final long retryAfter = lastError instanceof AlgoliaException ? ((AlgoliaException) lastError).getRetryAfter() : -1;
+                final long backoff = retryPolicy.getBackoff(attemptCount - 1, retryAfter);
+                if (listener != null) {
+                    listener.retry(callId, host, attemptCount, backoff);
+                }
+                if (backoff > 0) {
+                    if (backoff >= _getRemainingTime(deadline)) {
+                        throw _deadlineExceeded(errors);
+                    }
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new AlgoliaException("Request interrupted", e);
+                    }
+                }
+            }
+            // Cut the timeouts to the remaining time budget.
+            final long remainingTime = _getRemainingTime(deadline);
+            if (remainingTime <= 0) {
+                throw _deadlineExceeded(errors);
+            }
+            final HostStatus status = getHostStatus(host);
+            final HostPermit permit = probedHost != null ? status.acquireProbe() : status.acquire(System.nanoTime());
+            if (permit == HostPermit.DENIED) {
+                continue; // another request is already probing this host
+            }
+            attemptCount += 1;
+            if (listener != null) {
+                listener.hostSelected(callId, host);
+            }
+            final long startTime = System.nanoTime();
+            ResponseBuffer rawResponse = _requestHost(m, host, url, json, (int) Math.min(connectTimeout, remainingTime), (int) Math.min(readTimeout, remainingTime), errors, permit == HostPermit.PROBE, call, listener, callId);
+            if (rawResponse != null) {
+                if (readOperation) {
+                    readLatencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                }
+                return rawResponse;
+            }
+            if (call != null && call.isCancelled()) {
+                throw new AlgoliaException("Request cancelled", errors.get(errors.size() - 1));
+            }
+        }
+        throw _allHostsFailed(errors);
+    }
+
+    /**
+     * Send a read request to several hosts in parallel, the first response winning.
+     * The request is first sent to the first host. If it has not answered after the hedging delay (see
+     * {@link #getHedgingDelay()}), or if it has failed, a duplicate request is sent to the next available host, and
+     * so on.
+     * As soon as one request succeeds, the other ones are cancelled.
+     *
+     * @param m              HTTP Method to use
+     * @param url            endpoint URL
+     * @param json           optional JSON Object to send
+     * @param hostsArray     hosts to try, by order of preference
+     * @param connectTimeout maximum wait time to open connection
+     * @param readTimeout    maximum time to read data on socket
+     * @param deadline       time by which the request must complete (in `System.nanoTime()` units), or {@link #NO_DEADLINE}
+     * @param listener       listener notified of the call's phases, if any
+     * @param callId         ID of the call, as reported to the listener
+     * @return the raw response of the first successful host
+     * @throws AlgoliaException in case of connection or data handling error
+     */
+    private ResponseBuffer _requestHedged(final Method m, final String url, final String json, final List<String> hostsArray, final int connectTimeout, final int readTimeout, final long deadline, final @Nullable RequestEventListener listener, final long callId) throws AlgoliaException {
+        final long hedgingDelay = getHedgingDelay();
+        final CompletionService<ResponseBuffer> completionService = new ExecutorCompletionService<>(hedgingExecutorService);
+        final List<HedgedAttempt> attempts = new ArrayList<>(hostsArray.size());
+        try {
+            int pendingCount = 0;
+            int nextHost = 0;
+            do {
+                final long remainingTime = _getRemainingTime(deadline);
+                if (remainingTime <= 0) {
+                    throw _deadlineExceeded(Collections.<Exception>emptyList());
+                }
+                final boolean hasMoreHosts = nextHost < hostsArray.size();
+                Future<ResponseBuffer> future = null;
+                if (pendingCount > 0) {
+                    if (hasMoreHosts) {
+                        future = completionService.poll(Math.min(hedgingDelay, remainingTime), TimeUnit.MILLISECONDS);
+                    } else if (deadline == NO_DEADLINE) {
+                        future = completionService.take();
+                    } else {
+                        future = completionService.poll(remainingTime, TimeUnit.MILLISECONDS);
+                    }
+                }
+                if (future != null) {
+                    pendingCount -= 1;
+                    ResponseBuffer rawResponse = future.get();
+                    if (rawResponse != null) {
+                        return rawResponse;
+                    }
+                }
+                // Either the pending requests are too slow (=> hedge), or a host has failed (=> fail over).
+                final long attemptTime = _getRemainingTime(deadline);
+                while (nextHost < hostsArray.size() && attemptTime > 0) {
+                    final String host = hostsArray.get(nextHost++);
+                    final HostPermit permit = isUpOrCouldBeRetried(host) ? getHostStatus(host).acquire(System.nanoTime()) : HostPermit.DENIED;
+                    if (permit != HostPermit.DENIED) {
+                        if (listener != null) {
+                            if (!attempts.isEmpty()) {
+                                listener.retry(callId, host, attempts.size(), 0);
+                            }
+                            listener.hostSelected(callId, host);
+                        }
+                        HedgedAttempt attempt = new HedgedAttempt(m, host, url, json, (int) Math.min(connectTimeout, attemptTime), (int) Math.min(readTimeout, attemptTime), permit == HostPermit.PROBE, listener, callId);
+                        attempts.add(attempt);
+                        completionService.submit(attempt);
+                        pendingCount += 1;
+                        break;
+                    }
+                }
+            } while (pendingCount > 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AlgoliaException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AlgoliaException) {
+                throw (AlgoliaException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AlgoliaException("Unexpected error while sending request", e.getCause());
+        } finally {
+            // Cancel the losers (no-op for requests already finished).
+            for (HedgedAttempt attempt : attempts) {
+                attempt.cancel();
+            }
+        }
+        List<Exception> errors = new ArrayList<>(hostsArray.size());
+        for (HedgedAttempt attempt : attempts) {
+            errors.addAll(attempt.errors);
+        }
+        if (_getRemainingTime(deadline) <= 0) {
+            throw _deadlineExceeded(errors);
+        }
+        throw _allHostsFailed(errors);
+    }
+
+    /**
+     * Send the query to one host.
+     *
+     * @param m              HTTP Method to use
+     * @param host           the host to target
+     * @param url            endpoint URL
+     * @param json           optional JSON Object to send
+     * @param connectTimeout maximum wait time to open connection
+     * @param readTimeout    maximum time to read data on socket
+     * @param errors         list to which the error is appended if the host fails
+     * @param probe          true if this request is the probe of a half-open circuit
+     * @param call           the cancellable call running this request, if any
+     * @param listener       listener notified of the call's phases, if any
+     * @param callId         ID of the call, as reported to the listener
+     * @return the raw response, or null if the host failed and the next host should be tried
+     * @throws AlgoliaException in case of fatal error (i.e. not worth trying another host)
+     */
+    private @Nullable ResponseBuffer _requestHost(Method m, String host, String url, String json, int connectTimeout, int readTimeout, List<Exception> errors, boolean probe, @Nullable CancellableCall call, @Nullable RequestEventListener listener, long callId) throws AlgoliaException {
+        String requestMethod;
+        switch (m) {
+            case DELETE:
+                requestMethod = "DELETE";
+                break;
+            case GET:
+                requestMethod = "GET";
+                break;
+            case POST:
+                requestMethod = "POST";
+                break;
+            case PUT:
+                requestMethod = "PUT";
+                break;
+            default:
+                throw new IllegalArgumentException("Method " + m + " is not supported");
+        }
+
+        InputStream stream = null;
+        Transport.Connection hostConnection = null;
+        ResponseBuffer body = null;
+        boolean reusable = false;
+        boolean recorded = false;
+        final HostStatus status = getHostStatus(host);
+        status.requestCount.incrementAndGet();
+        final long startTime = System.nanoTime();
+        // set URL
+        try {
+            URL hostURL = new URL("https://" + host + url);
+            hostConnection = transport.open(hostURL, requestMethod, connectTimeout, readTimeout);
+            if (call != null) {
+                call.setConnection(hostConnection);
+            }
+
+            // set auth headers
+            if (this.applicationID != null) {
+                hostConnection.setRequestHeader("X-Algolia-Application-Id", this.applicationID);
+            }
+            if (this.apiKey != null) {
+                hostConnection.setRequestHeader("X-Algolia-API-Key", this.apiKey);
+            }
+            for (Map.Entry<String, String> entry : this.headers.entrySet()) {
+                hostConnection.setRequestHeader(entry.getKey(), entry.getValue());
+            }
+
+            // set user agent
+            hostConnection.setRequestHeader("User-Agent", userAgentRaw);
+
+            // write JSON entity
+            if (json != null) {
+                if (!(requestMethod.equals("PUT") || requestMethod.equals("POST"))) {
+                    throw new IllegalArgumentException("Method " + m + " cannot enclose entity");
+                }
+                hostConnection.setRequestHeader("Content-type", "application/json; charset=UTF-8");
+                if (listener != null) {
+                    listener.connectStart(callId, host);
+                }
+                if (requestCompressionEnabled && json.length() >= requestCompressionThreshold) {
+                    // Compress on the fly: the compressed length is unknown, so the body is sent chunked.
+                    hostConnection.setRequestHeader("Content-Encoding", "gzip");
+                    CountingOutputStream output = new CountingOutputStream(hostConnection.getRequestBody(-1));
+                    if (listener != null) {
+                        listener.connectEnd(callId, host);
+                    }
+                    OutputStreamWriter writer = new OutputStreamWriter(new GZIPOutputStream(output, GZIP_BUFFER_SIZE), "UTF-8");
+                    writer.write(json);
+                    writer.close();
+                    status.bytesSent.addAndGet(output.count);
+                    if (listener != null) {
+                        listener.requestBodyEnd(callId, host, output.count);
+                    }
+                } else {
+                    final byte[] bytes = json.getBytes("UTF-8");
+                    OutputStream output = hostConnection.getRequestBody(bytes.length);
+                    if (listener != null) {
+                        listener.connectEnd(callId, host);
+                    }
+                    output.write(bytes);
+                    output.close();
+                    status.bytesSent.addAndGet(bytes.length);
+                    if (listener != null) {
+                        listener.requestBodyEnd(callId, host, bytes.length);
+                    }
+                }
+            } else if (listener != null) {
+                // NOTE: Only connect explicitly when someone is watching; otherwise let the transport decide.
+                listener.connectStart(callId, host);
+                hostConnection.connect();
+                listener.connectEnd(callId, host);
+            }
+
+            // read response
+            int code = hostConnection.getResponseCode();
+            if (listener != null) {
+                listener.responseStart(callId, host, code);
+            }
+            final boolean codeIsError = code / 100 != 2;
+            stream = hostConnection.getResponseBody();
+            if (stream == null) {
+                throw new IOException(String.format("Null stream when reading connection (status %d)", code));
+            }
+
+            String encoding = hostConnection.getResponseHeader("Content-Encoding");
+            final boolean gzipped = encoding != null && encoding.equals("gzip");
+            // NOTE: The content length of a compressed body says little about its decompressed size.
+            body = new ResponseBuffer(bufferPool, gzipped ? -1 : _getContentLength(hostConnection));
+            body.readFrom(gzipped ? new GZIPInputStream(stream) : stream);
+            // The response has been entirely read: the connection may be kept alive.
+            reusable = true;
+            status.bytesReceived.addAndGet(body.size());
+            if (listener != null) {
+                listener.responseBodyEnd(callId, host, body.size());
+            }
+            if (code / 100 == 5) {
+                hostFailed(host, true);
+            } else {
+                hostSucceeded(host, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+            recorded = true;
+
+            // handle http errors
+            if (codeIsError) {
+                if (code / 100 == 4 && code != 429) {
+                    throw new AlgoliaException(body.toJSONObject().getString("message"), code);
+                } else {
+                    // Server error or rate limiting: worth retrying, possibly after the delay requested by the server.
+                    errors.add(new AlgoliaException(body.toString(), code, _getRetryAfter(hostConnection)));
+                    return null;
+                }
+            }
+            final ResponseBuffer rawResponse = body;
+            body = null; // ownership is transferred to the caller
+            return rawResponse;
+
+        }
+        catch (JSONException e) { // fatal
+            throw new AlgoliaException("Invalid JSON returned by server", e);
+        }
+        catch (UnsupportedEncodingException e) { // fatal
+            throw new AlgoliaException("Invalid encoding returned by server", e);
+        } catch (IOException e) { // host error, continue on the next host
+            // NOTE: A cancelled request says nothing about the host's health.
+            if (call == null || !call.isCancelled()) {
+                hostFailed(host, false);
+                recorded = true;
+            }
+            reusable = false;
+            errors.add(e);
+            return null;
+        } finally {
+            if (probe && !recorded) {
+                // The probe has not told anything about the host: let another request probe it.
+                status.releaseProbe();
+            }
+            if (body != null) {
+                body.release();
+            }
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (hostConnection != null) {
+                if (call != null) {
+                    call.clearConnection();
+                }
+                hostConnection.release(reusable);
+            }
+        }
+    }
+
+    /**
+     * Get the length of a response's body, as announced by the server.
+     *
+     * @param connection the connection whose response to inspect
+     * @return the body's length (bytes), or -1 if unknown
+     */
+    private static int _getContentLength(Transport.Connection connection) {
+        String contentLength = connection.getResponseHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                return Math.max(-1, Integer.parseInt(contentLength.trim()));
+            } catch (NumberFormatException e) {
+                // Ignore invalid values.
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the time by which the current request must complete.
+     *
+     * @return the deadline (in `System.nanoTime()` units), or {@link #NO_DEADLINE} if the request is not time-bound
+     */
+    private long _getDeadline() {
+        Long deadline = currentDeadline.get();
+        if (deadline != null) {
+            return deadline;
+        }
+        return requestTimeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeout) : NO_DEADLINE;
+    }
+
+    /**
+     * Get the time left before a deadline.
+     *
+     * @param deadline the deadline (in `System.nanoTime()` units), or {@link #NO_DEADLINE}
+     * @return the remaining time (ms), zero or negative if the deadline has passed
+     */
+    private static long _getRemainingTime(long deadline) {
+        if (deadline == NO_DEADLINE) {
+            return Integer.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Build the error reported when a request's deadline has passed.
+     *
+     * @param errors the errors encountered on the hosts tried so far
+     * @return an exception summarizing the errors
+     */
+    private static AlgoliaException _deadlineExceeded(List<Exception> errors) {
+        // NOTE: The cause is an I/O error, so that the error is considered transient.
+        return new AlgoliaException("Request deadline exceeded after trying " + errors.size() + " host(s): " + Arrays.toString(errors.toArray()),
+                new SocketTimeoutException("Request deadline exceeded"));
+    }
+
+    /**
+     * Get the delay after which the server asks to retry a request, as per the `Retry-After` header.
+     *
+     * @param connection the connection whose response to inspect
+     * @return the delay (ms), or -1 if unspecified
+     */
+    private static long _getRetryAfter(Transport.Connection connection) {
+        String retryAfter = connection.getResponseHeader("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        retryAfter = retryAfter.trim();
+        // Either a number of seconds...
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter)));
+        } catch (NumberFormatException e) {
+            // Ignore.
+        }
+        // ... or an HTTP date.
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            return Math.max(0, format.parse(retryAfter).getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Build the error reported when all hosts have failed.
+     *
+     * @param errors the errors encountered on each host
+     * @return an exception summarizing the errors
+     */
+    private static AlgoliaException _allHostsFailed(List<Exception> errors) {
+        if (errors.isEmpty()) {
+            // NOTE: The cause is an I/O error, so that the error is considered transient.
+            return new AlgoliaException("All hosts are down", new IOException("All hosts are down"));
+        }
+        String errorMessage = "All hosts failed: " + Arrays.toString(errors.toArray());
+        // When several errors occurred, use the last one as the cause for the returned exception.
+        Throwable lastError = errors.get(errors.size() - 1);
+        return new AlgoliaException(errorMessage, lastError);
+    }
+
+    /**
+     * A network call that may be cancelled from another thread.
+     * Cancelling aborts the connection in use, if any: interrupting the calling thread is not enough to unblock
+     * socket I/O.
+     */
+    private static class CancellableCall {
+        /** Connection currently in use, if any. */
+        private Transport.Connection connection;
+
+        private boolean cancelled;
+
+        synchronized void setConnection(@NonNull Transport.Connection connection) throws IOException {
+            if (cancelled) {
+                connection.cancel();
+                throw new IOException("Request cancelled");
+            }
+            this.connection = connection;
+        }
+
+        synchronized void clearConnection() {
+            this.connection = null;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancel this call if it is still running.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            if (connection != null) {
+                connection.cancel();
+                connection = null;
+            }
+        }
+    }
+
+    /**
+     * One of the parallel requests issued by {@link #_requestHedged}.
+     */
+    private class HedgedAttempt extends CancellableCall implements Callable<ResponseBuffer> {
+        private final Method m;
+        private final String host;
+        private final String url;
+        private final String json;
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final boolean probe;
+        private final RequestEventListener listener;
+        private final long callId;
+
+        /** Errors encountered by this attempt. */
+        final List<Exception> errors = new ArrayList<>(1);
+
+        HedgedAttempt(Method m, String host, String url, String json, int connectTimeout, int readTimeout, boolean probe, @Nullable RequestEventListener listener, long callId) {
+            this.m = m;
+            this.host = host;
+            this.url = url;
+            this.json = json;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.probe = probe;
+            this.listener = listener;
+            this.callId = callId;
+        }
+
+        @Override
+        public ResponseBuffer call() throws AlgoliaException {
+            final long startTime = System.nanoTime();
+            ResponseBuffer rawResponse = _requestHost(m, host, url, json, connectTimeout, readTimeout, errors, probe, this, listener, callId);
+            if (rawResponse != null) {
+                readLatencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+            return rawResponse;
+        }
+    }
+
+    /**
+     * An output stream counting the bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        /** Number of bytes written so far. */
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count += 1;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            // NOTE: `FilterOutputStream` would write the bytes one at a time.
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private void checkTimeout(int connectTimeout) {
+        if (connectTimeout <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Get the hosts that are not considered down in a given list, best first.
+     * Hosts are ranked by their {@link HostStatus#score(long, double) score}; hosts with the same score (in particular
+     * hosts that have never been tried) keep their original order.
+     *
+     * @param hosts a list of hosts whose {@link HostStatus} will be checked.
+     * @return the hosts considered up; empty if the circuits of all hosts are open.
+     */
+    private List<String> hostsThatAreUp(List<String> hosts) {
+        List<String> upHosts = new ArrayList<>(hosts.size());
+        for (String host : hosts) {
+            if (isUpOrCouldBeRetried(host)) {
+                upHosts.add(host);
+            }
+        }
+        // Stable insertion sort by score: host lists are very short.
+        final long now = System.nanoTime();
+        final double[] scores = new double[upHosts.size()];
+        for (int i = 0; i < scores.length; ++i) {
+            final String host = upHosts.get(i);
+            final HostStatus status = hostStatuses.get(host);
+            final double score = status == null ? DEFAULT_HOST_LATENCY : status.score(now, connectTimeout);
+            int j = i;
+            while (j > 0 && scores[j - 1] > score) {
+                scores[j] = scores[j - 1];
+                upHosts.set(j, upHosts.get(j - 1));
+                --j;
+            }
+            scores[j] = score;
+            upHosts.set(j, host);
+        }
+        return upHosts;
+    }
+
+    /**
+     * Find the host whose last failure is the oldest, among the hosts that are not already being probed.
+     *
+     * @param hosts a list of hosts, all considered down.
+     * @return the host that failed the longest ago, or null if all hosts are being probed.
+     */
+    private @Nullable String leastRecentlyFailedHost(List<String> hosts) {
+        String result = null;
+        long oldestTimestamp = 0;
+        for (String host : hosts) {
+            final HostStatus status = getHostStatus(host);
+            if (status.probeInFlight) {
+                continue;
+            }
+            if (result == null || status.lastTryTimestamp - oldestTimestamp < 0) {
+                result = host;
+                oldestTimestamp = status.lastTryTimestamp;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record a successful request to a host.
+     *
+     * @param host    The host.
+     * @param latency The request's latency (ms).
+     */
+    private void hostSucceeded(String host, long latency) {
+        getHostStatus(host).recordSuccess(System.nanoTime(), latency);
+    }
+
+    /**
+     * Record a failed request to a host.
+     *
+     * @param host      The host.
+     * @param reachable Whether the host answered (with a server error), as opposed to being unreachable.
+     */
+    private void hostFailed(String host, boolean reachable) {
+        final HostStatus status = getHostStatus(host);
+        status.errorCount.incrementAndGet();
+        status.recordFailure(System.nanoTime(), reachable);
+    }
+
+    private HostStatus getHostStatus(String host) {
+        HostStatus status = hostStatuses.get(host);
+        if (status == null) {
+            final HostStatus newStatus = new HostStatus(host);
+            status = hostStatuses.putIfAbsent(host, newStatus);
+            if (status == null) {
+                status = newStatus;
+            }
+        }
+        return status;
+    }
+
+    private void fireCircuitStateChanged(@NonNull final String host, @NonNull final CircuitState oldState, @NonNull final CircuitState newState) {
+        for (final CircuitBreakerListener listener : circuitBreakerListeners) {
+            completionExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.circuitStateDidChange(host, oldState, newState);
+                }
+            });
+        }
+    }
+
+    /**
+     * Test whether a request may be sent to a host, i.e. whether its circuit is closed, or could be probed.
+     *
+     * @param host The host.
+     * @return true if the host is up or could be retried, false if it is down.
+     */
+    boolean isUpOrCouldBeRetried(String host) {
+        HostStatus status = hostStatuses.get(host);
+        if (status == null) {
+            return true;
+        }
+        switch (status.circuitState) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.nanoTime() - status.lastTryTimestamp >= TimeUnit.MILLISECONDS.toNanos(hostDownDelay);
+            default:
+                return !status.probeInFlight;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Utils
+    // ----------------------------------------------------------------------
+
+    /**
+     * Abstract convenience implementation of {@link FutureRequest} using the client's default executors.
+     */
+    abstract protected class AsyncTaskRequest extends FutureRequest {
+        /**
+         * Construct a new request with the specified completion handler, executing on the client's search executor,
+         * and calling the completion handler on the client's completion executor.
+         *
+         * @param completionHandler  The completion handler to be notified of results. May be null if the caller omitted it.
+         */
+        protected AsyncTaskRequest(@Nullable CompletionHandler completionHandler) {
+            this(completionHandler, searchExecutorService);
+        }
+
+        /**
+         * Construct a new request with the specified completion handler, executing on the specified executor, and
+         * calling the completion handler on the client's completion executor.
+         *
+         * @param completionHandler  The completion handler to be notified of results. May be null if the caller omitted it.
+         * @param requestExecutor    Executor on which to execute the request.
+         */
+        protected AsyncTaskRequest(@Nullable CompletionHandler completionHandler, @NonNull Executor requestExecutor) {
+            this(completionHandler, requestExecutor, null);
+        }
+
+        /**
+         * Construct a new request with the specified completion handler and options, executing on the client's
+         * search executor, and calling the completion handler on the client's completion executor.
+         *
+         * @param completionHandler  The completion handler to be notified of results. May be null if the caller omitted it.
+         * @param requestOptions     Options for this request. May be null to use the client's settings.
+         */
+        protected AsyncTaskRequest(@Nullable CompletionHandler completionHandler, @Nullable RequestOptions requestOptions) {
+            this(completionHandler, searchExecutorService, requestOptions);
+        }
+
+        /**
+         * Construct a new request with the specified completion handler and options, executing on the specified
+         * executor, and calling the completion handler on the client's completion executor.
+         *
+         * @param completionHandler  The completion handler to be notified of results. May be null if the caller omitted it.
+         * @param requestExecutor    Executor on which to execute the request.
+         * @param requestOptions     Options for this request. May be null to use the client's settings.
+         */
+        protected AsyncTaskRequest(@Nullable CompletionHandler completionHandler, @NonNull Executor requestExecutor, @Nullable RequestOptions requestOptions) {
+            super(completionHandler, requestExecutor, completionExecutor);
+            // NOTE: The time budget starts now, so that time spent waiting for an executor thread counts as well.
+            final int timeout = requestOptions != null && requestOptions.getTimeout() > 0 ? requestOptions.getTimeout() : requestTimeout;
+            deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : NO_DEADLINE;
+        }
+
+        /** Time by which this request must complete (in `System.nanoTime()` units), or {@link #NO_DEADLINE}. */
+        private final long deadline;
+
+        /** Network call made on behalf of this request. */
+        private final CancellableCall call = new CancellableCall();
+
+        @NonNull
+        @Override
+        JSONObject execute() throws AlgoliaException {
+            currentCall.set(call);
+            if (deadline != NO_DEADLINE) {
+                currentDeadline.set(deadline);
+            }
+            try {
+                return run();
+            } finally {
+                currentCall.remove();
+                currentDeadline.remove();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            call.cancel();
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Copyright (c) 2016 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+// ----------------------------------------------------------------------
+// IMPLEMENTATION NOTES
+// ----------------------------------------------------------------------
+// The query parameters are stored as a map of native values (strings,
+// numbers, booleans, arrays...). This class provides:
+// - low-level accessors to the untyped parameters, which see every value
+//   in its serialized (string) form;
+// - higher-level, typed accessors.
+// The latter store their values as is, and read them back without parsing
+// them. A value is only serialized when needed (untyped access, building,
+// equality), and the result is kept along with the value. Values that were
+// parsed from a string are stored as such, and parsed by typed accessors.
+// Native values must never be modified: arrays are copied in and out.
+//
+// Since the same query is typically serialized several times (cache key,
+// request body, logging...), the URL-encoded form of each parameter is kept
+// until that parameter changes, and so is the whole serialized string. As
+// building writes to those caches, it is synchronized: a query may still
+// be built from several threads at once, as long as it is not modified.
+//
+// Copying a query is cheap: the copy shares the parameter map (and the
+// serialized forms) with the original, and whichever of them is modified
+// first copies the map beforehand. A shared map is never modified.
+//
+// Searches are keyed by a 128-bit fingerprint of the serialized form rather
+// than by the string itself. It is folded from per-parameter fingerprints,
+// which are kept along with the URL-encoded forms.
+// ----------------------------------------------------------------------
+
+/**
+ * An abstract search query.
+ */
+public abstract class AbstractQuery {
+
+    // ----------------------------------------------------------------------
+    // Types
+    // ----------------------------------------------------------------------
+
+    /**
+     * A pair of (latitude, longitude).
+     * Used in geo-search.
+     */
+    public static final class LatLng {
+        public final double lat;
+        public final double lng;
+
+        public LatLng(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            return other != null && other instanceof LatLng
+                    && this.lat == ((LatLng)other).lat && this.lng == ((LatLng)other).lng;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int)Math.round(lat * lng % Integer.MAX_VALUE);
+        }
+
+        /**
+         * @return The serialized form of this location, in the format `12.345,67.89`.
+         */
+        @Override
+        public String toString() {
+            return lat + "," + lng;
+        }
+
+        /**
+         * Parse a `LatLng` from its string representation.
+         *
+         * @param value A string representation of a (latitude, longitude) pair, in the format `12.345,67.890`
+         *              (number of digits may vary).
+         * @return A `LatLng` instance describing the given geolocation, or `null` if `value` is `null` or does not
+         *         represent a valid geolocation.
+         */
+        @Nullable public static LatLng parse(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] components = value.split(",");
+            if (components.length != 2) {
+                return null;
+            }
+            try {
+                return new LatLng(Double.valueOf(components[0]), Double.valueOf(components[1]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------
+
+    /** Query parameters, by name. Guarded by `this`. */
+    // NOTE: Using a tree map to have parameters sorted by key on output.
+    @NonNull private Map<String, Parameter> parameters = new TreeMap<>();
+
+    /** Whether {@link #parameters} is shared with copies of this query, and must be copied before being modified. */
+    private boolean shared;
+
+    /** Serialized form of this query, or null if a parameter has changed since it was last built. */
+    @Nullable private String built;
+
+    /** Fingerprint of this query, or null if a parameter has changed since it was last computed. */
+    @Nullable private QueryFingerprint fingerprint;
+
+    /**
+     * The value of a parameter, along with its serialized forms.
+     * <p>
+     * Parameters are immutable, hence shared between copies of a query. The serialized forms are computed lazily;
+     * since they are deterministic and immutable, concurrent computations are harmless.
+     * </p>
+     */
+    private static final class Parameter {
+        /** Native value. */
+        final @NonNull Object value;
+
+        /** Serialized value, or null if not computed yet. */
+        private String string;
+
+        /** URL-encoded `key=value` fragment, or null if not computed yet. */
+        private String fragment;
+
+        /** Fingerprint of the fragment, or null if not computed yet. */
+        private QueryFingerprint fingerprint;
+
+        Parameter(@NonNull Object value) {
+            this.value = value;
+        }
+
+        @NonNull String getString() {
+            if (string == null) {
+                string = value instanceof String[] ? buildJSONArray((String[]) value) : value.toString();
+            }
+            return string;
+        }
+
+        @NonNull String getFragment(@NonNull String name) {
+            if (fragment == null) {
+                fragment = encodeParameter(name, getString());
+            }
+            return fragment;
+        }
+
+        @NonNull QueryFingerprint getFingerprint(@NonNull String name) {
+            if (fingerprint == null) {
+                fingerprint = QueryFingerprint.of(getFragment(name));
+            }
+            return fingerprint;
+        }
+
+        boolean hasValue(@NonNull Object other) {
+            if (value instanceof String[] && other instanceof String[]) {
+                return Arrays.equals((String[]) value, (String[]) other);
+            }
+            return value.equals(other);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Construction
+    // ----------------------------------------------------------------------
+
+    /**
+     * Construct an empty query.
+     */
+    protected AbstractQuery() {
+    }
+
+    /**
+     * Clone an existing query.
+     * @param other The query to be cloned.
+     */
+    protected AbstractQuery(@NonNull AbstractQuery other) {
+        synchronized (other) {
+            // The parameters are only copied when either query is modified.
+            other.shared = true;
+            parameters = other.parameters;
+            shared = true;
+            built = other.built;
+            fingerprint = other.fingerprint;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Equality
+    // ----------------------------------------------------------------------
+
+    // NOTE: Equality is defined on the serialized values, so that a typed value equals its parsed counterpart.
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+        return other != null && other instanceof AbstractQuery && this.getSerializedParameters().equals(((AbstractQuery)other).getSerializedParameters());
+    }
+
+    @Override
+    public int hashCode() {
+        return getSerializedParameters().hashCode();
+    }
+
+    private synchronized @NonNull Map<String, String> getSerializedParameters() {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getString());
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------------------
+    // Misc.
+    // ----------------------------------------------------------------------
+
+    /**
+     * Obtain a debug representation of this query.
+     * To get the raw query URL part, please see {@link #build()}.
+     * @return A debug representation of this query.
+     */
+    @Override public @NonNull String toString() {
+        return String.format("%s{%s}", this.getClass().getSimpleName(), this.build());
+    }
+
+    // ----------------------------------------------------------------------
+    // Parsing/serialization
+    // ----------------------------------------------------------------------
+
+    /**
+     * Build the URL query parameter string representing this object.
+     * @return A string suitable for use inside the query part of a URL (i.e. after the question mark).
+     */
+    public synchronized @NonNull String build() {
+        if (built != null) {
+            return built;
+        }
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+            // Only the parameters that changed since the last call need to be encoded again.
+            if (stringBuilder.length() > 0)
+                stringBuilder.append('&');
+            stringBuilder.append(entry.getValue().getFragment(entry.getKey()));
+        }
+        built = stringBuilder.toString();
+        return built;
+    }
+
+    /**
+     * Compute a compact fingerprint of this query, suitable as a key for caching searches.
+     * Only the parameters that changed since the last call need to be hashed again.
+     *
+     * @return A fingerprint that is equal for all queries with the same {@link #build() serialized form}.
+     */
+    synchronized @NonNull QueryFingerprint fingerprint() {
+        if (fingerprint == null) {
+            QueryFingerprint result = QueryFingerprint.EMPTY;
+            for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+                result = result.append(entry.getValue().getFingerprint(entry.getKey()));
+            }
+            fingerprint = result;
+        }
+        return fingerprint;
+    }
+
+    static private @NonNull String encodeParameter(@NonNull String key, @Nullable String value) {
+        // NOTE: We prefer to have space encoded as `%20` instead of `+`, which `PercentEncoding` does.
+        if (value == null) {
+            return PercentEncoding.encode(key);
+        }
+        StringBuilder stringBuilder = new StringBuilder(key.length() + value.length() + 1);
+        PercentEncoding.encode(stringBuilder, key);
+        stringBuilder.append('=');
+        PercentEncoding.encode(stringBuilder, value);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Parse a URL query parameter string and store the resulting parameters into this query.
+     * @param queryParameters URL query parameter string.
+     */
+    public void parseFrom(@NonNull String queryParameters) {
+        // Like `String.split()`, ignore trailing empty parameters.
+        int length = queryParameters.length();
+        while (length > 0 && queryParameters.charAt(length - 1) == '&') {
+            --length;
+        }
+        if (length == 0 && queryParameters.length() > 0) {
+            return;
+        }
+        int start = 0;
+        while (start <= length) {
+            int end = queryParameters.indexOf('&', start);
+            if (end == -1 || end > length) {
+                end = length;
+            }
+            parseParameter(queryParameters, start, end);
+            start = end + 1;
+        } // for each parameter
+    }
+
+    /**
+     * Parse a single `name=value` parameter and store it into this query.
+     * Trailing `=` are ignored; a parameter without a value is removed; a parameter with more than one `=` is invalid
+     * and ignored.
+     *
+     * @param string The URL query parameter string.
+     * @param start  Start index of the parameter (inclusive).
+     * @param end    End index of the parameter (exclusive).
+     */
+    private void parseParameter(@NonNull String string, int start, int end) {
+        int last = end;
+        while (last > start && string.charAt(last - 1) == '=') {
+            --last;
+        }
+        if (last == start && end > start) {
+            return; // ignore invalid values
+        }
+        int separator = -1;
+        for (int i = start; i < last; ++i) {
+            if (string.charAt(i) == '=') {
+                if (separator != -1) {
+                    return; // ignore invalid values
+                }
+                separator = i;
+            }
+        }
+        String name = PercentEncoding.decode(string, start, separator == -1 ? last : separator);
+        String value = separator == -1 ? null : PercentEncoding.decode(string, separator + 1, last);
+        set(name, value);
+    }
+
+    protected static @Nullable Boolean parseBoolean(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.trim().toLowerCase().equals("true")) {
+            return true;
+        }
+        Integer intValue = parseInt(value);
+        return intValue != null && intValue != 0;
+    }
+
+    protected static @Nullable Integer parseInt(@Nullable String value)  {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    protected static @NonNull String buildJSONArray(@NonNull String[] values) {
+        JSONArray array = new JSONArray();
+        for (String value : values) {
+            array.put(value);
+        }
+        return array.toString();
+    }
+
+    @Nullable protected static String[] parseArray(@Nullable String string) {
+        if (string == null) {
+            return null;
+        }
+        // First try to parse JSON notation.
+        try {
+            JSONArray array = new JSONArray(string);
+            String[] result = new String[array.length()];
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = array.optString(i);
+            }
+            return result;
+        }
+        // Otherwise parse as a comma-separated list.
+        catch (JSONException e) {
+            return string.split(",");
+        }
+    }
+
+    protected static String buildCommaArray(String[] values) {
+        return buildCommaArray(Arrays.asList(values));
+    }
+
+    protected static @NonNull String buildCommaArray(@NonNull Iterable<String> values) {
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(value);
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Split a comma-separated list, keeping empty elements. An empty string yields an empty array.
+     */
+    protected static @NonNull String[] splitCommaArray(@NonNull String string) {
+        return string.isEmpty() ? new String[0] : string.split(",", -1);
+    }
+
+    protected static @Nullable String[] parseCommaArray(@Nullable String string) {
+        return string == null ? null : string.split(",");
+    }
+
+    /**
+     * @deprecated Please use {@link LatLng#parse(String)} instead.
+     */
+    public static @Nullable LatLng parseLatLng(String value) {
+        return LatLng.parse(value);
+    }
+
+    // ----------------------------------------------------------------------
+    // Low-level (untyped) accessors
+    // ----------------------------------------------------------------------
+
+    /**
+     * Set a parameter in an untyped fashion.
+     * This low-level accessor is intended to access parameters that this client does not yet support.
+     * @param name The parameter's name.
+     * @param value The parameter's value, or null to remove it.
+     *              It will first be converted to a String by the `toString()` method.
+     * @return This instance (used to chain calls).
+     */
+    public @NonNull AbstractQuery set(@NonNull String name, @Nullable Object value) {
+        // Immutable values can be serialized lazily. Others must be serialized now, as they might change afterwards.
+        return setValue(name, value == null || isImmutable(value) ? value : value.toString());
+    }
+
+    /**
+     * Get a parameter in an untyped fashion.
+     * @param name The parameter's name.
+     * @return The parameter's value, or null if a parameter with the specified name does not exist.
+     */
+    public @Nullable String get(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        return parameter == null ? null : parameter.getString();
+    }
+
+    private static boolean isImmutable(@NonNull Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Boolean || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof LatLng;
+    }
+
+    private synchronized @Nullable Parameter getParameter(@NonNull String name) {
+        return parameters.get(name);
+    }
+
+    /** Get the parameters for modification, copying them first if they are shared. Must be called under `this`. */
+    private @NonNull Map<String, Parameter> getMutableParameters() {
+        if (shared) {
+            parameters = new TreeMap<>(parameters);
+            shared = false;
+        }
+        return parameters;
+    }
+
+    // ----------------------------------------------------------------------
+    // Native accessors
+    // ----------------------------------------------------------------------
+
+    /**
+     * Set a parameter to a native value, which will be serialized by its `toString()` method when needed.
+     * @param name The parameter's name.
+     * @param value The parameter's value, or null to remove it. It must never be modified afterwards.
+     * @return This instance (used to chain calls).
+     */
+    protected @NonNull AbstractQuery setValue(@NonNull String name, @Nullable Object value) {
+        synchronized (this) {
+            final Parameter previous = parameters.get(name);
+            if (value == null) {
+                if (previous != null) {
+                    getMutableParameters().remove(name);
+                    built = null;
+                    fingerprint = null;
+                }
+            } else if (previous == null || !previous.hasValue(value)) {
+                getMutableParameters().put(name, new Parameter(value));
+                built = null;
+                fingerprint = null;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the native value of a parameter.
+     * @param name The parameter's name.
+     * @return The parameter's native value (a string if it was set in an untyped fashion), or null if a parameter with
+     *         the specified name does not exist. Arrays are copied.
+     */
+    protected @Nullable Object getValue(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        if (parameter == null) {
+            return null;
+        }
+        return parameter.value instanceof String[] ? ((String[]) parameter.value).clone() : parameter.value;
+    }
+
+    /**
+     * Set an array parameter. It is serialized in JSON notation.
+     * @param name The parameter's name.
+     * @param values The parameter's values, or null to remove it. The array is copied.
+     * @return This instance (used to chain calls).
+     */
+    protected @NonNull AbstractQuery setArray(@NonNull String name, @Nullable String[] values) {
+        return setValue(name, values == null ? null : values.clone());
+    }
+
+    protected @Nullable String[] getArray(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        if (parameter == null) {
+            return null;
+        }
+        return parameter.value instanceof String[] ? ((String[]) parameter.value).clone() : parseArray(parameter.getString());
+    }
+
+    protected @Nullable Integer getInt(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        if (parameter == null) {
+            return null;
+        }
+        return parameter.value instanceof Integer ? (Integer) parameter.value : parseInt(parameter.getString());
+    }
+
+    protected @Nullable LatLng getLatLng(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        if (parameter == null) {
+            return null;
+        }
+        return parameter.value instanceof LatLng ? (LatLng) parameter.value : LatLng.parse(parameter.getString());
+    }
+
+    protected @Nullable Boolean getBoolean(@NonNull String name) {
+        final Parameter parameter = getParameter(name);
+        if (parameter == null) {
+            return null;
+        }
+        return parameter.value instanceof Boolean ? (Boolean) parameter.value : parseBoolean(parameter.getString());
+    }
+}
\ No newline at end of file
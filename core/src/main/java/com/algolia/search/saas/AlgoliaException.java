@@ -33,6 +33,9 @@ public class AlgoliaException extends Exception {
     /** HTTP status code. Only valid when the error originates from the server. */
     private int statusCode;
 
+    /** Delay after which the server asked to retry (ms), or -1 if unspecified. */
+    private long retryAfter = -1;
+
     public AlgoliaException(String message) {
         super(message);
     }
@@ -48,6 +51,12 @@ public class AlgoliaException extends Exception {
         this.statusCode = statusCode;
     }
 
+    AlgoliaException(String message, int statusCode, long retryAfter)
+    {
+        this(message, statusCode);
+        this.retryAfter = retryAfter;
+    }
+
     private static final long serialVersionUID = 1L;
 
     /**
@@ -62,6 +71,16 @@ public class AlgoliaException extends Exception {
         return statusCode;
     }
 
+    /**
+     * Get the delay after which the server asked to retry, via the `Retry-After` header.
+     *
+     * @return The delay (ms), or -1 if unspecified.
+     */
+    long getRetryAfter()
+    {
+        return retryAfter;
+    }
+
     /**
      * Test whether this error is transient.
      *
@@ -70,7 +89,7 @@ public class AlgoliaException extends Exception {
     public boolean isTransient() {
         Throwable cause = getCause();
         if (cause == null) {
-            return isServerError(statusCode);
+            return isServerError(statusCode) || statusCode == 429; // 429 = Too Many Requests
         } else if (cause instanceof AlgoliaException) {
             return ((AlgoliaException)cause).isTransient();
         } else if (cause instanceof IOException) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A bounded pool of byte arrays, used to recycle response buffers.
+ * <p>
+ * Arrays are handed out best-fit (the smallest pooled array that is large enough). When the total size of the pooled
+ * arrays exceeds the pool's capacity, the least recently released arrays are dropped.
+ * </p>
+ * <p>
+ * WARNING: An array must not be used anymore once released to the pool.
+ * </p>
+ */
+class ByteArrayPool {
+    /** Pooled arrays, by ascending size. */
+    private final List<byte[]> buffersBySize = new ArrayList<>();
+
+    /** Pooled arrays, least recently released first. */
+    private final List<byte[]> buffersByLastUse = new LinkedList<>();
+
+    /** Total size of the pooled arrays (bytes). */
+    private int currentSize = 0;
+
+    /** Maximum total size of the pooled arrays (bytes). */
+    private final int capacity;
+
+    /**
+     * Construct a new pool.
+     *
+     * @param capacity Maximum total size of the pooled arrays (bytes).
+     */
+    ByteArrayPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get an array from the pool, or allocate a new one if none is large enough.
+     *
+     * @param minLength Minimum length of the array.
+     * @return An array at least `minLength` long. Its content is undefined.
+     */
+    synchronized @NonNull byte[] acquire(int minLength) {
+        for (int i = 0; i < buffersBySize.size(); ++i) {
+            byte[] buffer = buffersBySize.get(i);
+            if (buffer.length >= minLength) {
+                currentSize -= buffer.length;
+                buffersBySize.remove(i);
+                buffersByLastUse.remove(buffer);
+                return buffer;
+            }
+        }
+        return new byte[minLength];
+    }
+
+    /**
+     * Give an array back to the pool.
+     *
+     * @param buffer The array to recycle.
+     */
+    synchronized void release(@NonNull byte[] buffer) {
+        if (buffer.length > capacity) {
+            return;
+        }
+        buffersByLastUse.add(buffer);
+        int position = 0;
+        while (position < buffersBySize.size() && buffersBySize.get(position).length < buffer.length) {
+            ++position;
+        }
+        buffersBySize.add(position, buffer);
+        currentSize += buffer.length;
+        while (currentSize > capacity) {
+            byte[] oldest = buffersByLastUse.remove(0);
+            buffersBySize.remove(oldest);
+            currentSize -= oldest.length;
+        }
+    }
+
+    /**
+     * @return The total size of the pooled arrays (bytes).
+     */
+    synchronized int size() {
+        return currentSize;
+    }
+}
@@ -168,13 +168,24 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request listIndexesAsync(@NonNull CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return listIndexesAsync(null, completionHandler);
+    }
+
+    /**
+     * List existing indexes.
+     *
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request listIndexesAsync(@Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return listIndexes();
             }
-        }.start();
+        }.measure(latencies.get(OperationType.OTHER)).start();
     }
 
     /**
@@ -185,13 +196,25 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request deleteIndexAsync(final @NonNull String indexName, CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return deleteIndexAsync(indexName, null, completionHandler);
+    }
+
+    /**
+     * Delete an index.
+     *
+     * @param indexName Name of index to delete.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request deleteIndexAsync(final @NonNull String indexName, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, writeExecutorService, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return deleteIndex(indexName);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -205,13 +228,28 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request moveIndexAsync(final @NonNull String srcIndexName, final @NonNull String dstIndexName, CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return moveIndexAsync(srcIndexName, dstIndexName, null, completionHandler);
+    }
+
+    /**
+     * Move an existing index.
+     * If the destination index already exists, its specific API keys will be preserved and the source index specific
+     * API keys will be added.
+     *
+     * @param srcIndexName Name of index to move.
+     * @param dstIndexName The new index name.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request moveIndexAsync(final @NonNull String srcIndexName, final @NonNull String dstIndexName, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, writeExecutorService, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return moveIndex(srcIndexName, dstIndexName);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -225,13 +263,28 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request copyIndexAsync(final @NonNull String srcIndexName, final @NonNull String dstIndexName, CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return copyIndexAsync(srcIndexName, dstIndexName, null, completionHandler);
+    }
+
+    /**
+     * Copy an existing index.
+     * If the destination index already exists, its specific API keys will be preserved and the source index specific
+     * API keys will be added.
+     *
+     * @param srcIndexName Name of index to copy.
+     * @param dstIndexName The new index name.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request copyIndexAsync(final @NonNull String srcIndexName, final @NonNull String dstIndexName, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, writeExecutorService, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return copyIndex(srcIndexName, dstIndexName);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -263,13 +316,26 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request multipleQueriesAsync(final @NonNull List<IndexQuery> queries, final MultipleQueriesStrategy strategy, @NonNull CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return multipleQueriesAsync(queries, strategy, null, completionHandler);
+    }
+
+    /**
+     * Run multiple queries, potentially targeting multiple indexes, with one API call.
+     *
+     * @param queries The queries to run.
+     * @param strategy The strategy to use.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request multipleQueriesAsync(final @NonNull List<IndexQuery> queries, final MultipleQueriesStrategy strategy, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return multipleQueries(queries, strategy == null ? null : strategy.toString());
             }
-        }.start();
+        }.measure(latencies.get(OperationType.SEARCH)).start();
     }
 
     /**
@@ -280,13 +346,25 @@ public class Client extends AbstractClient {
      * @return A cancellable request.
      */
     public Request batchAsync(final @NonNull JSONArray operations, CompletionHandler completionHandler) {
-        return new AsyncTaskRequest(completionHandler) {
+        return batchAsync(operations, null, completionHandler);
+    }
+
+    /**
+     * Batch operations.
+     *
+     * @param operations List of operations.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request batchAsync(final @NonNull JSONArray operations, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return new AsyncTaskRequest(completionHandler, writeExecutorService, requestOptions) {
             @NonNull
             @Override
             protected JSONObject run() throws AlgoliaException {
                 return batch(operations);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     // ----------------------------------------------------------------------
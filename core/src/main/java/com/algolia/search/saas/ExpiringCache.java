@@ -1,8 +1,7 @@
 package com.algolia.search.saas;
 
-import android.support.v4.util.LruCache;
-import android.util.Pair;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -14,10 +13,16 @@ class ExpiringCache<K, V> {
     public static final int defaultMaxSize = 64;
     public final int expirationTimeout; // Time after which a cache entry is invalidated
 
-    private final LruCache<K, Pair<V, Long>> lruCache;
+    /** Entries, least recently used first. Guarded by `this`. */
+    private final LinkedHashMap<K, Entry<V>> lruCache;
 
     public ExpiringCache(final int timeout, final int maxSize) {
-        lruCache = new LruCache<>(maxSize);
+        lruCache = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true /* access order */) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
         expirationTimeout = timeout;
     }
 
@@ -36,9 +41,9 @@ class ExpiringCache<K, V> {
 
         synchronized (this) {
             long timeout = System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(expirationTimeout, expirationTimeUnit);
-            final Pair<V, Long> previousPair = lruCache.put(key, new Pair<>(value, timeout));
-            if (previousPair != null) {
-                previous = previousPair.first;
+            final Entry<V> previousEntry = lruCache.put(key, new Entry<>(value, timeout));
+            if (previousEntry != null) {
+                previous = previousEntry.value;
             }
         }
         return previous;
@@ -50,10 +55,10 @@ class ExpiringCache<K, V> {
      * @return the cached value if it is still valid, else null.
      */
     synchronized public V get(K key) {
-        final Pair<V, Long> cachePair = lruCache.get(key);
-        if (cachePair != null && cachePair.first != null) {
-            if (cachePair.second > System.currentTimeMillis()) {
-                return cachePair.first;
+        final Entry<V> entry = lruCache.get(key);
+        if (entry != null && entry.value != null) {
+            if (entry.expirationTime > System.currentTimeMillis()) {
+                return entry.value;
             } else {
                 lruCache.remove(key);
             }
@@ -64,14 +69,27 @@ class ExpiringCache<K, V> {
     /**
      * @return the number of entries in the cache.
      */
-    public int size() {
+    synchronized public int size() {
         return lruCache.size();
     }
 
     /**
      * Reset the cache, keeping the current settings.
      */
-    public void reset() {
-        lruCache.evictAll();
+    synchronized public void reset() {
+        lruCache.clear();
+    }
+
+    /**
+     * A cached value along with its expiration time.
+     */
+    private static class Entry<V> {
+        final V value;
+        final long expirationTime;
+
+        Entry(V value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
     }
 }
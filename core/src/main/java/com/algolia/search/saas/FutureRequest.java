@@ -25,7 +25,6 @@ package com.algolia.search.saas;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import org.json.JSONObject;
 
@@ -49,15 +48,27 @@ abstract class FutureRequest implements Request {
     /** The executor used to execute the completion handler. */
     private final @NonNull Executor completionExecutor;
 
+    /** Histogram recording the latency of this request, if any. */
+    private @Nullable LatencyHistogram latencyHistogram;
+
+    /** Time at which this request was started (in `System.nanoTime()` units). */
+    private long startTime;
+
     /** The callable running the request. */
     private Callable<APIResult> callable = new Callable<APIResult>() {
         @Override
         public APIResult call() throws Exception {
+            APIResult result;
             try {
-                return new APIResult(run());
+                result = new APIResult(execute());
             } catch (AlgoliaException e) {
-                return new APIResult(e);
+                result = new APIResult(e);
+            }
+            // NOTE: Cancelled requests are not recorded, since their latency is meaningless.
+            if (latencyHistogram != null && !isCancelled()) {
+                latencyHistogram.record(System.nanoTime() - startTime, result.error != null);
             }
+            return result;
         }
     };
 
@@ -92,7 +103,7 @@ abstract class FutureRequest implements Request {
             }
             catch (InterruptedException | ExecutionException e) {
                 // Should never happen => log the error, but do not crash.
-                Log.e(this.getClass().getName(), "When processing in background", e);
+                Platform.get().logError(this.getClass().getName(), "When processing in background", e);
             }
         }
     };
@@ -124,12 +135,35 @@ abstract class FutureRequest implements Request {
     @NonNull
     abstract protected JSONObject run() throws AlgoliaException;
 
+    /**
+     * Run this request synchronously, within whatever context it requires. By default, just calls {@link #run()}.
+     *
+     * @return The request's result.
+     * @throws AlgoliaException If an error was encountered.
+     */
+    @NonNull
+    JSONObject execute() throws AlgoliaException {
+        return run();
+    }
+
+    /**
+     * Record the latency of this request into a histogram. Must be called before {@link #start()}.
+     *
+     * @param latencyHistogram The histogram to record into.
+     * @return This instance.
+     */
+    FutureRequest measure(@NonNull LatencyHistogram latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+        return this;
+    }
+
     /**
      * Run this request asynchronously.
      *
      * @return This instance.
      */
     public FutureRequest start() {
+        startTime = System.nanoTime();
         requestExecutor.execute(task);
         return this;
     }
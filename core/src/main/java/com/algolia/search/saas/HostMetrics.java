@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A snapshot of the traffic between a client and one of its hosts.
+ */
+public class HostMetrics {
+    private final @NonNull String host;
+    private final long requestCount;
+    private final long errorCount;
+    private final long bytesSent;
+    private final long bytesReceived;
+
+    HostMetrics(@NonNull String host, long requestCount, long errorCount, long bytesSent, long bytesReceived) {
+        this.host = host;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+    }
+
+    /**
+     * @return The host.
+     */
+    public @NonNull String getHost() {
+        return host;
+    }
+
+    /**
+     * @return The number of requests sent to the host.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return The number of requests that failed because of the host, i.e. network errors and server errors (5xx).
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return The number of request body bytes sent to the host, after compression.
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return The number of response body bytes received from the host, after decompression.
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HostMetrics{host=%s, requestCount=%d, errorCount=%d, bytesSent=%d, bytesReceived=%d}", host, requestCount, errorCount, bytesSent, bytesReceived);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Default {@link Transport}, based on the platform's {@link HttpURLConnection}, with persistent connections.
+ * <p>
+ * `HttpURLConnection` keeps idle sockets in a process-wide keep-alive cache, but only if the response has been fully
+ * consumed and closed, and the connection is *not* disconnected. This transport honors that contract: reusable
+ * connections are simply released without disconnecting, so that subsequent requests to the same host skip the TCP and
+ * TLS handshakes. Connections that cannot be reused are disconnected.
+ * </p>
+ * <p>
+ * The keep-alive cache itself (number of idle sockets, how long they are kept) is managed by the platform and cannot
+ * be addressed from here; on the JVM, it is tuned through the `http.keepAlive` and `http.maxConnections` system
+ * properties.
+ * </p>
+ */
+public class HttpURLConnectionTransport implements Transport {
+    @Override
+    public @NonNull Connection open(@NonNull URL url, @NonNull String method, int connectTimeout, int readTimeout) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        return new KeepAliveConnection(connection);
+    }
+
+    // ----------------------------------------------------------------------
+    // Connection
+    // ----------------------------------------------------------------------
+
+    /**
+     * A connection that is left to the platform's keep-alive cache when released, unless it cannot be reused.
+     */
+    private static class KeepAliveConnection implements Connection {
+        private final @NonNull HttpURLConnection connection;
+
+        KeepAliveConnection(@NonNull HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void setRequestHeader(@NonNull String name, @NonNull String value) {
+            connection.setRequestProperty(name, value);
+        }
+
+        @Override
+        public @NonNull OutputStream getRequestBody(long contentLength) throws IOException {
+            connection.setDoOutput(true);
+            // NOTE: Without a streaming mode, `HttpURLConnection` buffers the whole body in memory.
+            if (contentLength >= 0 && contentLength <= Integer.MAX_VALUE) {
+                connection.setFixedLengthStreamingMode((int) contentLength);
+            } else {
+                connection.setChunkedStreamingMode(0);
+            }
+            return connection.getOutputStream();
+        }
+
+        @Override
+        public void connect() throws IOException {
+            connection.connect();
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return connection.getResponseCode();
+        }
+
+        @Override
+        public @Nullable String getResponseHeader(@NonNull String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public @Nullable InputStream getResponseBody() throws IOException {
+            // As per the official Java docs (not the Android docs):
+            // - `getErrorStream()` may return null => callers have to handle this case.
+            //   See <https://docs.oracle.com/javase/7/docs/api/java/net/HttpURLConnection.html#getErrorStream()>.
+            // - `getInputStream()` should never return null... but let's err on the side of caution.
+            //   See <https://docs.oracle.com/javase/7/docs/api/java/net/URLConnection.html#getInputStream()>.
+            final boolean codeIsError = connection.getResponseCode() / 100 != 2;
+            return codeIsError ? connection.getErrorStream() : connection.getInputStream();
+        }
+
+        @Override
+        public void release(boolean reusable) {
+            // NOTE: Disconnecting closes the socket, which defeats keep-alive. Only do it when the connection cannot
+            // (or should not) be reused. A reusable connection has had its response fully consumed and closed by
+            // the caller, which hands the socket back to the platform's keep-alive cache.
+            if (!reusable) {
+                connection.disconnect();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            // NOTE: Disconnecting closes the underlying socket, which unblocks any thread waiting on it.
+            connection.disconnect();
+        }
+    }
+}
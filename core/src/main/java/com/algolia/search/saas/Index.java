@@ -35,6 +35,7 @@ import org.json.JSONObject;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -58,9 +59,16 @@ public class Index {
     /** This index's name, URL-encoded. Cached for optimization. */
     private String encodedIndexName;
 
-    private ExpiringCache<String, byte[]> searchCache;
+    /** Cached search results, by query fingerprint. */
+    private ExpiringCache<QueryFingerprint, byte[]> searchCache;
     private boolean isCacheEnabled = false;
 
+    /** Searches in flight, by query fingerprint. Identical concurrent searches share the same network call. */
+    private final Map<QueryFingerprint, SharedSearch> inFlightSearches = new HashMap<>();
+
+    /** Latencies of the asynchronous operations performed on this index. */
+    private final OperationLatencies latencies = new OperationLatencies();
+
     // ----------------------------------------------------------------------
     // Constants
     // ----------------------------------------------------------------------
@@ -113,13 +121,68 @@ public class Index {
      * @return A cancellable request.
      */
     public Request searchAsync(@Nullable Query query, @Nullable CompletionHandler completionHandler) {
+        return searchAsync(query, null, completionHandler);
+    }
+
+    /**
+     * Search inside this index (asynchronously).
+     * <p>
+     * Identical searches issued while one is already in flight do not trigger another network call: they share the
+     * pending one, and each of their completion handlers receives its own copy of the result. The network call is
+     * only cancelled once all the searches sharing it have been cancelled. Searches with request options are never
+     * shared, since they may not have the same time budget.
+     * </p>
+     *
+     * @param query             Search parameters. May be null to use an empty query.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request searchAsync(@Nullable Query query, @Nullable RequestOptions requestOptions, @Nullable CompletionHandler completionHandler) {
         final Query queryCopy = query != null ? new Query(query) : new Query();
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        if (requestOptions != null) {
+            return searchUnsharedAsync(queryCopy, requestOptions, completionHandler);
+        }
+        final QueryFingerprint key = queryCopy.fingerprint();
+        SharedSearch newSearch = null;
+        final SearchSubscription subscription;
+        synchronized (inFlightSearches) {
+            SharedSearch sharedSearch = inFlightSearches.get(key);
+            if (sharedSearch == null) {
+                sharedSearch = newSearch = new SharedSearch(key, queryCopy);
+                inFlightSearches.put(key, sharedSearch);
+            } else if (!sharedSearch.matches(queryCopy)) {
+                // Fingerprint collision: do not share results between different queries.
+                return searchUnsharedAsync(queryCopy, null, completionHandler);
+            }
+            subscription = sharedSearch.subscribe(completionHandler);
+        }
+        // NOTE: Only start the network call once subscribed, since it may complete synchronously (e.g. with an
+        // inline executor).
+        if (newSearch != null) {
+            newSearch.start();
+        }
+        return subscription;
+    }
+
+    private Request searchUnsharedAsync(@NonNull final Query query, @Nullable RequestOptions requestOptions, @Nullable CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
-                return search(queryCopy);
+                return search(query);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.SEARCH)).start();
+    }
+
+    /**
+     * Create a new search session on this index.
+     * In a search session, each search supersedes the previous ones, which is suited to "search as you type".
+     * See {@link SearchSession}.
+     *
+     * @return A new search session.
+     */
+    public @NonNull SearchSession newSearchSession() {
+        return new SearchSession(this);
     }
 
     /**
@@ -142,16 +205,31 @@ public class Index {
      * @return A cancellable request.
      */
     public Request multipleQueriesAsync(final @NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, @NonNull CompletionHandler completionHandler) {
+        return multipleQueriesAsync(queries, strategy, null, completionHandler);
+    }
+
+    /**
+     * Run multiple queries on this index with one API call.
+     * A variant of {@link Client#multipleQueriesAsync(List, Client.MultipleQueriesStrategy, CompletionHandler)}
+     * where the targeted index is always the receiver.
+     *
+     * @param queries           The queries to run.
+     * @param strategy          The strategy to use.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request multipleQueriesAsync(final @NonNull List<Query> queries, final Client.MultipleQueriesStrategy strategy, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         final List<Query> queriesCopy = new ArrayList<>(queries.size());
         for (Query query : queries) {
             queriesCopy.add(new Query(query));
         }
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return multipleQueries(queriesCopy, strategy == null ? null : strategy.toString());
             }
-        }.start();
+        }.measure(latencies.get(OperationType.SEARCH)).start();
     }
 
     /**
@@ -173,10 +251,24 @@ public class Index {
      * @return A cancellable request.
      */
     public Request searchDisjunctiveFacetingAsync(@NonNull Query query, @NonNull final List<String> disjunctiveFacets, @NonNull final Map<String, List<String>> refinements, @NonNull final CompletionHandler completionHandler) {
+        return searchDisjunctiveFacetingAsync(query, disjunctiveFacets, refinements, null, completionHandler);
+    }
+
+    /**
+     * Perform a search with disjunctive facets, generating as many queries as number of disjunctive facets (helper).
+     *
+     * @param query             The query.
+     * @param disjunctiveFacets List of disjunctive facets.
+     * @param refinements       The current refinements, mapping facet names to a list of values.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request searchDisjunctiveFacetingAsync(@NonNull Query query, @NonNull final List<String> disjunctiveFacets, @NonNull final Map<String, List<String>> refinements, @Nullable final RequestOptions requestOptions, @NonNull final CompletionHandler completionHandler) {
         return new DisjunctiveFaceting() {
             @Override
             protected Request multipleQueriesAsync(@NonNull List<Query> queries, @NonNull CompletionHandler completionHandler) {
-                return Index.this.multipleQueriesAsync(queries, null, completionHandler);
+                return Index.this.multipleQueriesAsync(queries, null, requestOptions, completionHandler);
             }
         }.searchDisjunctiveFacetingAsync(query, disjunctiveFacets, refinements, completionHandler);
     }
@@ -215,7 +307,7 @@ public class Index {
      * @return A cancellable request.
      */
     public Request searchForFacetValuesAsync(@NonNull String facetName, @NonNull String facetText, @Nullable Query query, @NonNull final CompletionHandler handler) {
-        return searchForFacetValues(facetName, facetText, query, handler);
+        return searchForFacetValuesAsync(facetName, facetText, query, null, handler);
     }
 
     /**
@@ -228,6 +320,20 @@ public class Index {
      * @return A cancellable request.
      */
     public Request searchForFacetValues(@NonNull String facetName, @NonNull String facetText, @Nullable Query query, @NonNull final CompletionHandler handler) {
+        return searchForFacetValuesAsync(facetName, facetText, query, null, handler);
+    }
+
+    /**
+     * Search for some text in a facet values, optionally restricting the returned values to those contained in objects matching other (regular) search criteria.
+     *
+     * @param facetName      The name of the facet to search. It must have been declared in the index's `attributesForFaceting` setting with the `searchable()` modifier.
+     * @param facetText      The text to search for in the facet's values.
+     * @param query          An optional query to take extra search parameters into account. There parameters apply to index objects like in a regular search query. Only facet values contained in the matched objects will be returned
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param handler        A Completion handler that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request searchForFacetValuesAsync(@NonNull String facetName, @NonNull String facetText, @Nullable Query query, @Nullable RequestOptions requestOptions, @NonNull final CompletionHandler handler) {
         try {
             final String path = "/1/indexes/" + getEncodedIndexName() + "/facets/" + URLEncoder.encode(facetName, "UTF-8") + "/query";
             final Query params = (query != null ? new Query(query) : new Query());
@@ -235,13 +341,13 @@ public class Index {
             final JSONObject requestBody = new JSONObject().put("params", params.build());
 
             final Client client = getClient();
-            return client.new AsyncTaskRequest(handler) {
+            return client.new AsyncTaskRequest(handler, requestOptions) {
                 @NonNull
                 @Override
                 protected JSONObject run() throws AlgoliaException {
                     return client.postRequest(path, requestBody.toString(), true);
                 }
-            }.start();
+            }.measure(latencies.get(OperationType.SEARCH)).start();
         } catch (UnsupportedEncodingException | JSONException e) {
             throw new RuntimeException(e); // should never happen
         }
@@ -259,12 +365,12 @@ public class Index {
      * @return A cancellable request.
      */
     public Request addObjectAsync(final @NonNull JSONObject object, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return addObject(object);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -281,12 +387,30 @@ public class Index {
      * @return A cancellable request.
      */
     public Request addObjectAsync(final @NonNull JSONObject object, final @NonNull String objectID, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return addObjectAsync(object, objectID, null, completionHandler);
+    }
+
+    /**
+     * Add an object to this index, assigning it the specified object ID (asynchronously).
+     * If an object already exists with the same object ID, the existing object will be overwritten.
+     * <p>
+     * WARNING: For performance reasons, the arguments are not cloned. Since the method is executed in the background,
+     * you should not modify the object after it has been passed.
+     * </p>
+     *
+     * @param object            The object to add.
+     * @param objectID          Identifier that you want to assign this object.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request addObjectAsync(final @NonNull JSONObject object, final @NonNull String objectID, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return addObject(object, objectID);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -297,12 +421,24 @@ public class Index {
      * @return A cancellable request.
      */
     public Request addObjectsAsync(final @NonNull JSONArray objects, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return addObjectsAsync(objects, null, completionHandler);
+    }
+
+    /**
+     * Add several objects to this index (asynchronously).
+     *
+     * @param objects           Objects to add.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request addObjectsAsync(final @NonNull JSONArray objects, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return addObjects(objects);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -314,12 +450,25 @@ public class Index {
      * @return A cancellable request.
      */
     public Request saveObjectAsync(final @NonNull JSONObject object, final @NonNull String objectID, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return saveObjectAsync(object, objectID, null, completionHandler);
+    }
+
+    /**
+     * Update an object (asynchronously).
+     *
+     * @param object            New version of the object to update.
+     * @param objectID          Identifier of the object to update.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request saveObjectAsync(final @NonNull JSONObject object, final @NonNull String objectID, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return saveObject(object, objectID);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -330,12 +479,24 @@ public class Index {
      * @return A cancellable request.
      */
     public Request saveObjectsAsync(final @NonNull JSONArray objects, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return saveObjectsAsync(objects, null, completionHandler);
+    }
+
+    /**
+     * Update several objects (asynchronously).
+     *
+     * @param objects           Objects to update. Each object must contain an <code>objectID</code> attribute.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request saveObjectsAsync(final @NonNull JSONArray objects, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return saveObjects(objects);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -351,12 +512,12 @@ public class Index {
      * @return A cancellable request.
      */
     public Request partialUpdateObjectAsync(final @NonNull JSONObject partialObject, final @NonNull String objectID, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return partialUpdateObject(partialObject, objectID, null);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -369,12 +530,26 @@ public class Index {
      * @return A cancellable request.
      */
     public Request partialUpdateObjectAsync(final @NonNull JSONObject partialObject, final @NonNull String objectID, final boolean createIfNotExists, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return partialUpdateObjectAsync(partialObject, objectID, createIfNotExists, null, completionHandler);
+    }
+
+    /**
+     * Partially update an object (asynchronously).
+     *
+     * @param partialObject     New value/operations for the object.
+     * @param objectID          Identifier of object to be updated.
+     * @param createIfNotExists Whether the object should be created if it does not exist already.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request partialUpdateObjectAsync(final @NonNull JSONObject partialObject, final @NonNull String objectID, final boolean createIfNotExists, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return partialUpdateObject(partialObject, objectID, createIfNotExists);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -390,12 +565,7 @@ public class Index {
      * @return A cancellable request.
      */
     public Request partialUpdateObjectsAsync(final @NonNull JSONArray partialObjects, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
-            @NonNull
-            @Override protected JSONObject run() throws AlgoliaException {
-                return partialUpdateObjects(partialObjects, true);
-            }
-        }.start();
+        return partialUpdateObjectsAsync(partialObjects, true, null, completionHandler);
     }
 
     /**
@@ -408,12 +578,26 @@ public class Index {
      * @return A cancellable request.
      */
     public Request partialUpdateObjectsAsync(final @NonNull JSONArray partialObjects, final boolean createIfNotExists, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return partialUpdateObjectsAsync(partialObjects, createIfNotExists, null, completionHandler);
+    }
+
+    /**
+     * Partially update several objects (asynchronously).
+     *
+     * @param partialObjects    New values/operations for the objects. Each object must contain an <code>objectID</code>
+     *                          attribute.
+     * @param createIfNotExists Whether objects should be created if they do not exist already.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request partialUpdateObjectsAsync(final @NonNull JSONArray partialObjects, final boolean createIfNotExists, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return partialUpdateObjects(partialObjects, createIfNotExists);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -436,12 +620,25 @@ public class Index {
      * @return A cancellable request.
      */
     public Request getObjectAsync(final @NonNull String objectID, final List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getObjectAsync(objectID, attributesToRetrieve, null, completionHandler);
+    }
+
+    /**
+     * Get an object from this index, optionally restricting the retrieved content (asynchronously).
+     *
+     * @param objectID             Identifier of the object to retrieve.
+     * @param attributesToRetrieve List of attributes to retrieve.
+     * @param requestOptions       Options for this request. May be null to use the client's settings.
+     * @param completionHandler    The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request getObjectAsync(final @NonNull String objectID, final List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return getObject(objectID, attributesToRetrieve);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.GET_OBJECTS)).start();
     }
 
     /**
@@ -464,12 +661,25 @@ public class Index {
      * @return A cancellable request.
      */
     public Request getObjectsAsync(final @NonNull List<String> objectIDs, final List<String> attributesToRetrieve, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getObjectsAsync(objectIDs, attributesToRetrieve, null, completionHandler);
+    }
+
+    /**
+     * Get several objects from this index (asynchronously), optionally restricting the retrieved content (asynchronously).
+     *
+     * @param objectIDs            Identifiers of objects to retrieve.
+     * @param attributesToRetrieve List of attributes to retrieve.
+     * @param requestOptions       Options for this request. May be null to use the client's settings.
+     * @param completionHandler    The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request getObjectsAsync(final @NonNull List<String> objectIDs, final List<String> attributesToRetrieve, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return getObjects(objectIDs, attributesToRetrieve);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.GET_OBJECTS)).start();
     }
 
     /**
@@ -483,12 +693,12 @@ public class Index {
      * @deprecated Task IDs are always integers. Please use {@link #waitTaskAsync(int, CompletionHandler)} instead.
      */
     public Request waitTaskAsync(final @NonNull String taskID, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().longRunningExecutorService) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return waitTask(taskID);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WAIT_TASK)).start();
     }
 
     /**
@@ -500,12 +710,25 @@ public class Index {
      * @return A cancellable request.
      */
     public Request waitTaskAsync(final int taskID, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return waitTaskAsync(taskID, null, completionHandler);
+    }
+
+    /**
+     * Wait until the publication of a task on the server (helper).
+     * All server tasks are asynchronous. This method helps you check that a task is published.
+     *
+     * @param taskID            Identifier of the task (as returned by the server).
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request waitTaskAsync(final int taskID, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().longRunningExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return waitTask(Integer.toString(taskID));
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WAIT_TASK)).start();
     }
 
     /**
@@ -516,12 +739,24 @@ public class Index {
      * @return A cancellable request.
      */
     public Request deleteObjectAsync(final @NonNull String objectID, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return deleteObjectAsync(objectID, null, completionHandler);
+    }
+
+    /**
+     * Delete an object from this index (asynchronously).
+     *
+     * @param objectID          Identifier of the object to delete.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request deleteObjectAsync(final @NonNull String objectID, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return deleteObject(objectID);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -532,12 +767,24 @@ public class Index {
      * @return A cancellable request.
      */
     public Request deleteObjectsAsync(final @NonNull List<String> objectIDs, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return deleteObjectsAsync(objectIDs, null, completionHandler);
+    }
+
+    /**
+     * Delete several objects from this index (asynchronously).
+     *
+     * @param objectIDs         Identifiers of objects to delete.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request deleteObjectsAsync(final @NonNull List<String> objectIDs, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return deleteObjects(objectIDs);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -548,14 +795,26 @@ public class Index {
      * @return A cancellable request.
      */
     public Request deleteByQueryAsync(@NonNull Query query, CompletionHandler completionHandler) {
+        return deleteByQueryAsync(query, null, completionHandler);
+    }
+
+    /**
+     * Delete all objects matching a query (helper).
+     *
+     * @param query             The query that objects to delete must match.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request deleteByQueryAsync(@NonNull Query query, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
         final Query queryCopy = new Query(query);
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().longRunningExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 deleteByQuery(queryCopy);
                 return new JSONObject();
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     /**
@@ -565,12 +824,23 @@ public class Index {
      * @return A cancellable request.
      */
     public Request getSettingsAsync(@NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getSettingsAsync(null, completionHandler);
+    }
+
+    /**
+     * Get this index's settings (asynchronously).
+     *
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request getSettingsAsync(@Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return getSettings(2);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.SETTINGS)).start();
     }
 
     /**
@@ -584,12 +854,27 @@ public class Index {
      * @return A cancellable request.
      */
     public Request setSettingsAsync(final @NonNull JSONObject settings, CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return setSettingsAsync(settings, null, completionHandler);
+    }
+
+    /**
+     * Set this index's settings (asynchronously).
+     * <p>
+     * Please refer to our <a href="https://www.algolia.com/doc/android#index-settings">API documentation</a> for the
+     * list of supported settings.
+     *
+     * @param settings          New settings.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request setSettingsAsync(final @NonNull JSONObject settings, @Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return setSettings(settings);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.SETTINGS)).start();
     }
 
     /**
@@ -603,13 +888,28 @@ public class Index {
      * @return A cancellable request.
      */
     public Request browseAsync(@NonNull Query query, @NonNull CompletionHandler completionHandler) {
+        return browseAsync(query, null, completionHandler);
+    }
+
+    /**
+     * Browse all index content (initial call).
+     * This method should be called once to initiate a browse. It will return the first page of results and a cursor,
+     * unless the end of the index has been reached. To retrieve subsequent pages, call `browseFromAsync` with that
+     * cursor.
+     *
+     * @param query             The query parameters for the browse.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request browseAsync(@NonNull Query query, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         final Query queryCopy = new Query(query);
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().longRunningExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return browse(queryCopy);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.BROWSE)).start();
     }
 
     /**
@@ -622,12 +922,26 @@ public class Index {
      * @return A cancellable request.
      */
     public Request browseFromAsync(final @NonNull String cursor, @NonNull CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return browseFromAsync(cursor, null, completionHandler);
+    }
+
+    /**
+     * Browse the index from a cursor.
+     * This method should be called after an initial call to `browseAsync()`. It returns a cursor, unless the end of
+     * the index has been reached.
+     *
+     * @param cursor            The cursor of the next page to retrieve.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request browseFromAsync(final @NonNull String cursor, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().longRunningExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return browseFrom(cursor);
             }
-        }.start();
+        }.measure(latencies.get(OperationType.BROWSE)).start();
     }
 
     /**
@@ -637,12 +951,23 @@ public class Index {
      * @return A cancellable request.
      */
     public Request clearIndexAsync(CompletionHandler completionHandler) {
-        return getClient().new AsyncTaskRequest(completionHandler) {
+        return clearIndexAsync(null, completionHandler);
+    }
+
+    /**
+     * Clear this index.
+     *
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request clearIndexAsync(@Nullable RequestOptions requestOptions, CompletionHandler completionHandler) {
+        return getClient().new AsyncTaskRequest(completionHandler, getClient().writeExecutorService, requestOptions) {
             @NonNull
             @Override protected JSONObject run() throws AlgoliaException {
                 return clearIndex();
             }
-        }.start();
+        }.measure(latencies.get(OperationType.WRITE)).start();
     }
 
     // ----------------------------------------------------------------------
@@ -677,6 +1002,17 @@ public class Index {
         }
     }
 
+    /**
+     * Test whether the results of a search are in the search cache.
+     *
+     * @param query The search parameters.
+     * @return true if the search cache is enabled and contains the results, false otherwise.
+     */
+    boolean hasCachedSearch(@NonNull Query query) {
+        final ExpiringCache<QueryFingerprint, byte[]> cache = searchCache;
+        return isCacheEnabled && cache != null && cache.get(query.fingerprint()) != null;
+    }
+
     /**
      * Remove all entries from cache
      */
@@ -686,6 +1022,186 @@ public class Index {
         }
     }
 
+    /**
+     * Get the latencies of the asynchronous operations performed on this index, per type of operation.
+     * Latencies are measured from the moment an operation is started until its result is available, including any
+     * time spent waiting for an executor thread, retrying or decoding the response. Searches served from the search
+     * cache are included; searches sharing the same network call are recorded once.
+     *
+     * @return Latency snapshots, for the types of operations performed so far.
+     */
+    public @NonNull Map<OperationType, LatencySnapshot> getLatencyMetrics() {
+        return latencies.snapshot();
+    }
+
+    // ----------------------------------------------------------------------
+    // Search coalescing
+    // ----------------------------------------------------------------------
+
+    /**
+     * A network search shared by identical concurrent searches.
+     * <p>
+     * WARNING: The subscriptions are guarded by {@link #inFlightSearches}.
+     * </p>
+     */
+    private class SharedSearch implements CompletionHandler {
+        /** Key of this search in {@link #inFlightSearches}. */
+        private final @NonNull QueryFingerprint key;
+
+        /** The query being searched. */
+        private final @NonNull Query query;
+
+        /** The searches sharing this network call, still waiting for its result. */
+        private final List<SearchSubscription> subscriptions = new ArrayList<>(1);
+
+        /** The underlying network call. */
+        private final @NonNull FutureRequest request;
+
+        /**
+         * The searches that were waiting when the network call returned, once detached from this search. They are no
+         * longer in {@link #subscriptions}.
+         */
+        private volatile List<SearchSubscription> completedSubscriptions;
+
+        /** The results of each search in {@link #completedSubscriptions}, in the same order. */
+        private volatile List<JSONObject> results;
+
+        SharedSearch(@NonNull QueryFingerprint key, @NonNull final Query query) {
+            this.key = key;
+            this.query = query;
+            request = getClient().new AsyncTaskRequest(this) {
+                @NonNull
+                @Override protected JSONObject run() throws AlgoliaException {
+                    final SearchResponse response = searchDecoded(query);
+                    // NOTE: Completion handlers may modify their results, so each one receives its own copy. The
+                    // copies are decoded here, on the worker thread, rather than on the completion executor.
+                    final List<SearchSubscription> subscriptions = detachSubscriptions();
+                    completedSubscriptions = subscriptions;
+                    final List<JSONObject> results = new ArrayList<>(subscriptions.size());
+                    for (int i = 0; i < subscriptions.size(); ++i) {
+                        results.add(i == 0 ? response.content : decodeSearchResponse(response.rawResponse));
+                    }
+                    SharedSearch.this.results = results;
+                    return response.content;
+                }
+            }.measure(latencies.get(OperationType.SEARCH));
+        }
+
+        /** Start the network call. Must be called once, outside of the lock. */
+        void start() {
+            request.start();
+        }
+
+        /**
+         * Test whether another query can share this search, i.e. whether it really is the same query, not just one
+         * with the same fingerprint.
+         */
+        boolean matches(@NonNull Query other) {
+            return query.build().equals(other.build());
+        }
+
+        @NonNull SearchSubscription subscribe(@Nullable CompletionHandler completionHandler) {
+            SearchSubscription subscription = new SearchSubscription(this, completionHandler);
+            subscriptions.add(subscription);
+            return subscription;
+        }
+
+        void unsubscribe(@NonNull SearchSubscription subscription) {
+            synchronized (inFlightSearches) {
+                // NOTE: Once the subscriptions are detached, the network call is over and must not be cancelled.
+                if (subscriptions.remove(subscription) && subscriptions.isEmpty()) {
+                    removeFromInFlightSearches();
+                    request.cancel();
+                }
+            }
+        }
+
+        @Override
+        public void requestCompleted(JSONObject content, AlgoliaException error) {
+            List<SearchSubscription> subscriptions = completedSubscriptions;
+            if (subscriptions == null) {
+                // The network call failed: nobody took the waiting searches yet.
+                subscriptions = detachSubscriptions();
+            }
+            for (int i = 0; i < subscriptions.size(); ++i) {
+                if (error != null) {
+                    subscriptions.get(i).complete(null, error);
+                } else {
+                    subscriptions.get(i).complete(results.get(i), null);
+                }
+            }
+        }
+
+        /**
+         * Stop sharing this search and take the searches waiting for it.
+         *
+         * @return The searches that were waiting for this search.
+         */
+        private @NonNull List<SearchSubscription> detachSubscriptions() {
+            synchronized (inFlightSearches) {
+                removeFromInFlightSearches();
+                final List<SearchSubscription> detached = new ArrayList<>(subscriptions);
+                subscriptions.clear();
+                return detached;
+            }
+        }
+
+        private void removeFromInFlightSearches() {
+            // NOTE: A new search may already have replaced this one.
+            if (inFlightSearches.get(key) == this) {
+                inFlightSearches.remove(key);
+            }
+        }
+    }
+
+    /**
+     * One of the searches sharing a {@link SharedSearch}.
+     */
+    private static class SearchSubscription implements Request {
+        private final @NonNull SharedSearch sharedSearch;
+        private final @Nullable CompletionHandler completionHandler;
+        private boolean cancelled;
+        private boolean finished;
+
+        SearchSubscription(@NonNull SharedSearch sharedSearch, @Nullable CompletionHandler completionHandler) {
+            this.sharedSearch = sharedSearch;
+            this.completionHandler = completionHandler;
+        }
+
+        void complete(JSONObject content, AlgoliaException error) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                finished = true;
+            }
+            if (completionHandler != null) {
+                completionHandler.requestCompleted(content, error);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled || finished) {
+                    return;
+                }
+                cancelled = true;
+            }
+            sharedSearch.unsubscribe(this);
+        }
+
+        @Override
+        public synchronized boolean isFinished() {
+            return finished || cancelled;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
     // ----------------------------------------------------------------------
     // Internal operations
     // ----------------------------------------------------------------------
@@ -997,29 +1513,105 @@ public class Index {
      * @throws AlgoliaException
      */
     protected JSONObject search(@Nullable Query query) throws AlgoliaException {
+        return searchDecoded(query).content;
+    }
+
+    /** A search response, both raw and decoded. */
+    private static class SearchResponse {
+        final @NonNull byte[] rawResponse;
+        final @NonNull JSONObject content;
+
+        SearchResponse(@NonNull byte[] rawResponse, @NonNull JSONObject content) {
+            this.rawResponse = rawResponse;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Search inside the index, going through the search cache when it is enabled, and decode the response.
+     * The cache lookup, the network call if any and the decoding are reported as a single call to the client's
+     * request event listener.
+     *
+     * @return the raw and decoded search results
+     * @throws AlgoliaException
+     */
+    private SearchResponse searchDecoded(@Nullable Query query) throws AlgoliaException {
         if (query == null) {
             query = new Query();
         }
+        final RequestEventListener listener = client.getRequestEventListener();
+        long callId = 0;
+        if (listener != null) {
+            final String paramsString = query.build();
+            callId = client._startCall(listener, paramsString.length() > 0 ? "POST" : "GET", searchPath(paramsString));
+        }
+        AlgoliaException error = null;
+        try {
+            final byte[] rawResponse = searchCached(query, listener, callId);
+            final JSONObject content = decodeSearchResponse(rawResponse);
+            if (listener != null) {
+                listener.jsonParsed(callId, rawResponse.length);
+            }
+            return new SearchResponse(rawResponse, content);
+        } catch (AlgoliaException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (listener != null) {
+                client._endCall(listener, callId, error);
+            }
+        }
+    }
 
-        String cacheKey = null;
+    /**
+     * Search inside the index, going through the search cache when it is enabled.
+     *
+     * @param listener listener notified of the cache lookup, if any
+     * @param callId   ID of the call, as reported to the listener
+     * @return a byte array containing search results
+     * @throws AlgoliaException
+     */
+    private byte[] searchCached(@NonNull Query query, @Nullable RequestEventListener listener, long callId) throws AlgoliaException {
+        QueryFingerprint cacheKey = null;
         byte[] rawResponse = null;
         if (isCacheEnabled) {
-            cacheKey = query.build();
+            cacheKey = query.fingerprint();
             rawResponse = searchCache.get(cacheKey);
-        }
-        try {
-            if (rawResponse == null) {
-                rawResponse = searchRaw(query);
-                if (isCacheEnabled) {
-                    searchCache.put(cacheKey, rawResponse);
+            if (listener != null) {
+                if (rawResponse != null) {
+                    listener.cacheHit(callId, indexName, rawResponse.length);
+                } else {
+                    listener.cacheMiss(callId, indexName);
                 }
             }
+        }
+        if (rawResponse == null) {
+            rawResponse = searchRaw(query);
+            if (isCacheEnabled) {
+                searchCache.put(cacheKey, rawResponse);
+            }
+        }
+        return rawResponse;
+    }
+
+    private static JSONObject decodeSearchResponse(byte[] rawResponse) throws AlgoliaException {
+        try {
             return Client._getJSONObject(rawResponse);
         } catch (UnsupportedEncodingException | JSONException e) {
             throw new AlgoliaException(e.getMessage());
         }
     }
 
+    /**
+     * Get the path of a search request.
+     *
+     * @param paramsString the search parameters
+     * @return the path: searches with parameters are POSTed to it, the others are a GET
+     */
+    private String searchPath(@NonNull String paramsString) {
+        return paramsString.length() > 0 ? "/1/indexes/" + encodedIndexName + "/query" : "/1/indexes/" + encodedIndexName;
+    }
+
     /**
      * Search inside the index
      *
@@ -1036,9 +1628,9 @@ public class Index {
             if (paramsString.length() > 0) {
                 JSONObject body = new JSONObject();
                 body.put("params", paramsString);
-                return client.postRequestRaw("/1/indexes/" + encodedIndexName + "/query", body.toString(), true);
+                return client.postRequestRaw(searchPath(paramsString), body.toString(), true);
             } else {
-                return client.getRequestRaw("/1/indexes/" + encodedIndexName, true);
+                return client.getRequestRaw(searchPath(paramsString), true);
             }
         } catch (JSONException e) {
             throw new RuntimeException(e); // should never happen
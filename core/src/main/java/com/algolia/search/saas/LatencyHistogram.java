@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies, with a bounded relative error.
+ * <p>
+ * Latencies are counted in buckets of exponentially growing width: each power of two (in microseconds) is split into
+ * {@link #SUB_BUCKET_COUNT} buckets, so that a latency is known within 12.5%. The buckets are allocated once and for
+ * all; recording a latency is just an atomic increment.
+ * </p>
+ * <p>
+ * Contrary to {@link LatencyTracker}, which keeps a sliding window of recent samples, a histogram accumulates all the
+ * samples recorded since its creation.
+ * </p>
+ */
+class LatencyHistogram {
+    /** Number of bits used to split each power of two. */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Number of buckets per power of two. */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Exponent of the largest power of two tracked (µs), i.e. about 2 minutes. Larger values are clamped. */
+    private static final int MAX_EXPONENT = 26;
+
+    /** Total number of buckets. */
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    /** Number of samples, per bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /** Number of samples that were errors. */
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * Record a latency.
+     *
+     * @param latency The latency (in `System.nanoTime()` units).
+     * @param error   true if the operation failed, false if it succeeded.
+     */
+    void record(long latency, boolean error) {
+        buckets.incrementAndGet(bucketIndex(TimeUnit.NANOSECONDS.toMicros(latency)));
+        if (error) {
+            errorCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Take a snapshot of this histogram.
+     * NOTE: Samples recorded while the snapshot is being taken may or may not be accounted for.
+     *
+     * @return A snapshot of this histogram.
+     */
+    @NonNull LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = buckets.get(i);
+        }
+        return new LatencySnapshot(counts, errorCount.get());
+    }
+
+    /**
+     * Compute the bucket into which a value falls.
+     *
+     * @param value The value (µs).
+     * @return The bucket's index.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(0, value);
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Compute the largest value falling into a bucket.
+     *
+     * @param index The bucket's index.
+     * @return The bucket's upper bound (µs).
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
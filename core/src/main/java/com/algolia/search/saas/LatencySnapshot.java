@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A snapshot of the latencies of an operation, as recorded by a client or an index.
+ * <p>
+ * Percentiles are approximate: they are accurate within 12.5%, and always rounded up.
+ * </p>
+ */
+public class LatencySnapshot {
+    /** Number of samples, per bucket (see {@link LatencyHistogram}). */
+    private final @NonNull long[] counts;
+
+    /** Total number of samples. */
+    private final long count;
+
+    /** Number of samples that were errors. */
+    private final long errorCount;
+
+    LatencySnapshot(@NonNull long[] counts, long errorCount) {
+        this.counts = counts;
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        this.count = count;
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * @return The number of operations recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of operations that failed.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Compute a percentile of the latencies.
+     *
+     * @param percentile The percentile, between 0 (exclusive) and 1 (inclusive).
+     * @return The latency (ms) below which the specified proportion of operations fall, or -1 if no operation was
+     *         recorded.
+     */
+    public double getPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in ]0, 1]");
+        }
+        if (count == 0) {
+            return -1;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return LatencyHistogram.bucketUpperBound(i) / 1000.0;
+            }
+        }
+        return LatencyHistogram.bucketUpperBound(counts.length - 1) / 1000.0; // should never happen
+    }
+
+    /**
+     * @return The median latency (ms), or -1 if no operation was recorded.
+     */
+    public double getP50() {
+        return getPercentile(0.5);
+    }
+
+    /**
+     * @return The 90th percentile of latencies (ms), or -1 if no operation was recorded.
+     */
+    public double getP90() {
+        return getPercentile(0.9);
+    }
+
+    /**
+     * @return The 99th percentile of latencies (ms), or -1 if no operation was recorded.
+     */
+    public double getP99() {
+        return getPercentile(0.99);
+    }
+
+    /**
+     * @return The 99.9th percentile of latencies (ms), or -1 if no operation was recorded.
+     */
+    public double getP999() {
+        return getPercentile(0.999);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencySnapshot{count=%d, errorCount=%d, p50=%.3f, p90=%.3f, p99=%.3f, p999=%.3f}", count, errorCount, getP50(), getP90(), getP99(), getP999());
+    }
+}
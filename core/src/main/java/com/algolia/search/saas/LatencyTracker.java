@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a sliding window of the most recent latencies, and computes percentiles over it.
+ */
+class LatencyTracker {
+    /** The recorded latencies (ms), used as a ring buffer. */
+    private final long[] samples;
+
+    /** Scratch space used to sort samples when computing a percentile. */
+    private final long[] sorted;
+
+    /** Total number of samples recorded so far. */
+    private long count;
+
+    /**
+     * Construct a new tracker.
+     *
+     * @param capacity Number of samples to keep.
+     */
+    LatencyTracker(int capacity) {
+        samples = new long[capacity];
+        sorted = new long[capacity];
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param latency The latency (ms).
+     */
+    synchronized void record(long latency) {
+        samples[(int) (count % samples.length)] = latency;
+        count += 1;
+    }
+
+    /**
+     * @return The number of samples currently available.
+     */
+    synchronized int size() {
+        return (int) Math.min(count, samples.length);
+    }
+
+    /**
+     * Compute a percentile over the available samples.
+     *
+     * @param percentile The percentile, between 0 (exclusive) and 1 (inclusive).
+     * @return The latency (ms) below which the specified proportion of samples fall, or -1 if no sample is available.
+     */
+    synchronized long percentile(double percentile) {
+        final int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))];
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms, per type of operation.
+ * Histograms are only created when an operation of the corresponding type is first recorded.
+ */
+class OperationLatencies {
+    private static final OperationType[] TYPES = OperationType.values();
+
+    /** Histograms, indexed by operation type ordinal. */
+    private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<>(TYPES.length);
+
+    /**
+     * Get the histogram for a type of operation, creating it if necessary.
+     *
+     * @param type The type of operation.
+     * @return The corresponding histogram.
+     */
+    @NonNull LatencyHistogram get(@NonNull OperationType type) {
+        LatencyHistogram histogram = histograms.get(type.ordinal());
+        if (histogram == null) {
+            histograms.compareAndSet(type.ordinal(), null, new LatencyHistogram());
+            histogram = histograms.get(type.ordinal());
+        }
+        return histogram;
+    }
+
+    /**
+     * Take a snapshot of all histograms.
+     *
+     * @return Snapshots of the histograms, for the types of operations recorded so far.
+     */
+    @NonNull Map<OperationType, LatencySnapshot> snapshot() {
+        Map<OperationType, LatencySnapshot> snapshots = new EnumMap<>(OperationType.class);
+        for (OperationType type : TYPES) {
+            final LatencyHistogram histogram = histograms.get(type.ordinal());
+            if (histogram != null) {
+                snapshots.put(type, histogram.snapshot());
+            }
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import java.nio.charset.Charset;
+
+/**
+ * Percent-encoding of URL query parameters, as UTF-8.
+ * <p>
+ * The output is the same as `URLEncoder`'s, except that spaces are encoded as `%20` instead of `+`: alphanumerics and
+ * `.-*_` are kept as is; everything else is percent-escaped. Unlike `URLEncoder`, no charset lookup and no
+ * intermediate buffer are involved, and strings that need no escaping are returned as is.
+ * </p>
+ */
+class PercentEncoding {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private PercentEncoding() {
+        // Not instantiable.
+    }
+
+    /**
+     * Percent-encode a string.
+     *
+     * @param string The string to encode.
+     * @return The encoded string; the same instance if no character needs escaping.
+     */
+    static @NonNull String encode(@NonNull String string) {
+        final int length = string.length();
+        int i = 0;
+        while (i < length && isUnreserved(string.charAt(i))) {
+            ++i;
+        }
+        if (i == length) {
+            return string;
+        }
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(string, 0, i);
+        encode(builder, string, i);
+        return builder.toString();
+    }
+
+    /**
+     * Percent-encode a string, appending the result to a builder.
+     *
+     * @param builder The builder to append to.
+     * @param string  The string to encode.
+     */
+    static void encode(@NonNull StringBuilder builder, @NonNull String string) {
+        encode(builder, string, 0);
+    }
+
+    private static void encode(@NonNull StringBuilder builder, @NonNull String string, int start) {
+        final int length = string.length();
+        for (int i = start; i < length; ++i) {
+            final char c = string.charAt(i);
+            if (isUnreserved(c)) {
+                builder.append(c);
+            } else if (c < 0x80) {
+                appendByte(builder, c);
+            } else if (c < 0x800) {
+                appendByte(builder, 0xC0 | (c >> 6));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                appendByte(builder, 0xE0 | (c >> 12));
+                appendByte(builder, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                appendByte(builder, 0xF0 | (codePoint >> 18));
+                appendByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (codePoint & 0x3F));
+            } else {
+                // Unpaired surrogate: cannot be represented in UTF-8. Like `String.getBytes()`, replace it with `?`.
+                appendByte(builder, '?');
+            }
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+    private static void appendByte(@NonNull StringBuilder builder, int b) {
+        builder.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    /**
+     * Decode a percent-encoded substring. Like `URLDecoder`, `+` is decoded as a space.
+     *
+     * @param string The string to decode.
+     * @param start  Start index of the substring to decode (inclusive).
+     * @param end    End index of the substring to decode (exclusive).
+     * @return The decoded substring.
+     * @throws IllegalArgumentException If the substring contains an invalid escape sequence.
+     */
+    static @NonNull String decode(@NonNull String string, int start, int end) {
+        int i = start;
+        while (i < end && string.charAt(i) != '%' && string.charAt(i) != '+') {
+            ++i;
+        }
+        if (i == end) {
+            return string.substring(start, end);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        builder.append(string, start, i);
+        byte[] bytes = null;
+        while (i < end) {
+            final char c = string.charAt(i);
+            if (c == '+') {
+                builder.append(' ');
+                ++i;
+            } else if (c == '%') {
+                // Consecutive escape sequences may form a single multi-byte character: decode them together.
+                if (bytes == null) {
+                    bytes = new byte[(end - i) / 3];
+                }
+                int count = 0;
+                while (i < end && string.charAt(i) == '%') {
+                    if (i + 2 >= end) {
+                        throw new IllegalArgumentException("Incomplete escape sequence at index " + i);
+                    }
+                    final int high = hexValue(string.charAt(i + 1));
+                    final int low = hexValue(string.charAt(i + 2));
+                    if (high < 0 || low < 0) {
+                        throw new IllegalArgumentException("Invalid escape sequence at index " + i);
+                    }
+                    bytes[count++] = (byte) ((high << 4) | low);
+                    i += 3;
+                }
+                builder.append(new String(bytes, 0, count, UTF_8));
+            } else {
+                builder.append(c);
+                ++i;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Services provided by the environment the client runs in.
+ * <p>
+ * The client's core only depends on the JRE, so that it can run (and be tested or benchmarked) on a plain JVM. The
+ * few things that must be done differently on Android are abstracted here. When the Android adapter
+ * (`AndroidPlatform`) is on the classpath, it is used; otherwise, a pure Java implementation is.
+ * </p>
+ */
+abstract class Platform {
+    /**
+     * Runs tasks after a delay. Tasks are run on the same thread as completion handlers.
+     */
+    interface Scheduler {
+        /**
+         * Schedule a task.
+         *
+         * @param task  The task to run.
+         * @param delay Delay after which the task is run (ms).
+         */
+        void schedule(@NonNull Runnable task, long delay);
+
+        /**
+         * Cancel a task, if it has not run yet.
+         *
+         * @param task The task to cancel.
+         */
+        void cancel(@NonNull Runnable task);
+    }
+
+    private static final Platform PLATFORM = findPlatform();
+
+    /**
+     * @return The platform the client is running on.
+     */
+    static @NonNull Platform get() {
+        return PLATFORM;
+    }
+
+    private static @NonNull Platform findPlatform() {
+        try {
+            return (Platform) Class.forName("com.algolia.search.saas.AndroidPlatform").newInstance();
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            return new JvmPlatform();
+        }
+    }
+
+    /**
+     * @return The name and version of the operating system, as reported in the user agent.
+     */
+    abstract @NonNull AbstractClient.LibraryVersion getSystemVersion();
+
+    /**
+     * Create the executor on which completion handlers are run by default.
+     *
+     * @return A serial executor.
+     */
+    abstract @NonNull Executor newCompletionExecutor();
+
+    /**
+     * Create a scheduler running tasks alongside completion handlers.
+     *
+     * @return A new scheduler.
+     */
+    abstract @NonNull Scheduler newScheduler();
+
+    /**
+     * Log an unexpected error.
+     *
+     * @param tag       Origin of the message.
+     * @param message   The message.
+     * @param throwable The error.
+     */
+    abstract void logError(@NonNull String tag, @NonNull String message, @NonNull Throwable throwable);
+
+    /**
+     * The plain JVM. Since there is no main thread, completion handlers are run on a dedicated thread, one at a time.
+     */
+    private static class JvmPlatform extends Platform {
+        private final ScheduledThreadPoolExecutor completionExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "AlgoliaSearch-completion");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        @Override
+        @NonNull AbstractClient.LibraryVersion getSystemVersion() {
+            return new AbstractClient.LibraryVersion("Java", System.getProperty("java.version"));
+        }
+
+        @Override
+        @NonNull Executor newCompletionExecutor() {
+            return completionExecutor;
+        }
+
+        @Override
+        @NonNull Scheduler newScheduler() {
+            return new Scheduler() {
+                private final Map<Runnable, ScheduledFuture<?>> futures = new ConcurrentHashMap<>();
+
+                @Override
+                public void schedule(@NonNull final Runnable task, long delay) {
+                    futures.put(task, completionExecutor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            futures.remove(task);
+                            task.run();
+                        }
+                    }, delay, TimeUnit.MILLISECONDS));
+                }
+
+                @Override
+                public void cancel(@NonNull Runnable task) {
+                    ScheduledFuture<?> future = futures.remove(task);
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                }
+            };
+        }
+
+        @Override
+        void logError(@NonNull String tag, @NonNull String message, @NonNull Throwable throwable) {
+            Logger.getLogger(tag).log(Level.SEVERE, message, throwable);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.algolia.search.saas;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.text.TextUtils;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -132,7 +131,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getAdvancedSyntax() {
-        return parseBoolean(get(KEY_ADVANCED_SYNTAX));
+        return getBoolean(KEY_ADVANCED_SYNTAX);
     }
 
     private static final String KEY_ALLOW_TYPOS_ON_NUMERIC_TOKENS = "allowTyposOnNumericTokens";
@@ -146,7 +145,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getAllowTyposOnNumericTokens() {
-        return parseBoolean(get(KEY_ALLOW_TYPOS_ON_NUMERIC_TOKENS));
+        return getBoolean(KEY_ALLOW_TYPOS_ON_NUMERIC_TOKENS);
     }
 
     private static final String KEY_ANALYTICS = "analytics";
@@ -160,7 +159,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getAnalytics() {
-        return parseBoolean(get(KEY_ANALYTICS));
+        return getBoolean(KEY_ANALYTICS);
     }
 
     private static final String KEY_ANALYTICS_TAGS = "analyticsTags";
@@ -169,11 +168,11 @@ public class Query extends AbstractQuery {
      * @param tags Set the analytics tags identifying the query
      */
     public @NonNull Query setAnalyticsTags(String... tags) {
-        return set(KEY_ANALYTICS_TAGS, buildJSONArray(tags));
+        return (Query) setArray(KEY_ANALYTICS_TAGS, tags);
     }
 
     public String[] getAnalyticsTags() {
-        return parseArray(get(KEY_ANALYTICS_TAGS));
+        return getArray(KEY_ANALYTICS_TAGS);
     }
 
     private static final String KEY_AROUND_LAT_LNG = "aroundLatLng";
@@ -182,15 +181,11 @@ public class Query extends AbstractQuery {
      * Search for entries around a given latitude/longitude.
      */
     public @NonNull Query setAroundLatLng(@Nullable LatLng location) {
-        if (location == null) {
-            return set(KEY_AROUND_LAT_LNG, null);
-        } else {
-            return set(KEY_AROUND_LAT_LNG, location.lat + "," + location.lng);
-        }
+        return set(KEY_AROUND_LAT_LNG, location);
     }
 
     public @Nullable LatLng getAroundLatLng() {
-        return LatLng.parse(get(KEY_AROUND_LAT_LNG));
+        return getLatLng(KEY_AROUND_LAT_LNG);
     }
 
     private static final String KEY_AROUND_LAT_LNG_VIA_IP = "aroundLatLngViaIP";
@@ -204,7 +199,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getAroundLatLngViaIP() {
-        return parseBoolean(get(KEY_AROUND_LAT_LNG_VIA_IP));
+        return getBoolean(KEY_AROUND_LAT_LNG_VIA_IP);
     }
 
     private static final String KEY_AROUND_PRECISION = "aroundPrecision";
@@ -217,7 +212,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getAroundPrecision() {
-        return parseInt(get(KEY_AROUND_PRECISION));
+        return getInt(KEY_AROUND_PRECISION);
     }
 
     private static final String KEY_AROUND_RADIUS = "aroundRadius";
@@ -241,11 +236,13 @@ public class Query extends AbstractQuery {
      * @return Query.RADIUS_ALL if set to 'all'.
      */
     public Integer getAroundRadius() {
-        final String value = get(KEY_AROUND_RADIUS);
-        if (value != null && value.equals("all")) {
+        final Object value = getValue(KEY_AROUND_RADIUS);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if ("all".equals(value)) {
             return Query.RADIUS_ALL;
         }
-        return parseInt(value);
+        return getInt(KEY_AROUND_RADIUS);
     }
 
     private static final String KEY_ATTRIBUTES_TO_HIGHLIGHT = "attributesToHighlight";
@@ -255,7 +252,7 @@ public class Query extends AbstractQuery {
      */
     @Deprecated
     public @NonNull Query setAttributesToHighlight(List<String> attributes) {
-        return set(KEY_ATTRIBUTES_TO_HIGHLIGHT, buildJSONArray((String[]) attributes.toArray()));
+        return (Query) setArray(KEY_ATTRIBUTES_TO_HIGHLIGHT, attributes == null ? null : attributes.toArray(new String[attributes.size()]));
     }
 
     /**
@@ -263,11 +260,11 @@ public class Query extends AbstractQuery {
      * attributes are highlighted.
      */
     public @NonNull Query setAttributesToHighlight(String... attributes) {
-        return set(KEY_ATTRIBUTES_TO_HIGHLIGHT, buildJSONArray(attributes));
+        return (Query) setArray(KEY_ATTRIBUTES_TO_HIGHLIGHT, attributes);
     }
 
     public String[] getAttributesToHighlight() {
-        return parseArray(get(KEY_ATTRIBUTES_TO_HIGHLIGHT));
+        return getArray(KEY_ATTRIBUTES_TO_HIGHLIGHT);
     }
 
     private static final String KEY_ATTRIBUTES_TO_RETRIEVE = "attributesToRetrieve";
@@ -278,7 +275,7 @@ public class Query extends AbstractQuery {
      */
     @Deprecated
     public @NonNull Query setAttributesToRetrieve(List<String> attributes) {
-        return set(KEY_ATTRIBUTES_TO_RETRIEVE, buildJSONArray((String[]) attributes.toArray()));
+        return (Query) setArray(KEY_ATTRIBUTES_TO_RETRIEVE, attributes == null ? null : attributes.toArray(new String[attributes.size()]));
     }
 
     /**
@@ -286,13 +283,13 @@ public class Query extends AbstractQuery {
      * attributes are retrieved.
      */
     public @NonNull Query setAttributesToRetrieve(String... attributes) {
-        return set(KEY_ATTRIBUTES_TO_RETRIEVE, buildJSONArray(attributes));
+        return (Query) setArray(KEY_ATTRIBUTES_TO_RETRIEVE, attributes);
     }
 
     public String[] getAttributesToRetrieve() {
-        String[] result = parseArray(get(KEY_ATTRIBUTES_TO_RETRIEVE));
+        String[] result = getArray(KEY_ATTRIBUTES_TO_RETRIEVE);
         if (result == null) {
-            result = parseArray(get(KEY_ATTRIBUTES_TO_RETRIEVE_LEGACY));
+            result = getArray(KEY_ATTRIBUTES_TO_RETRIEVE_LEGACY);
         }
         return result;
     }
@@ -307,11 +304,11 @@ public class Query extends AbstractQuery {
      * snippet is computed.
      */
     public @NonNull Query setAttributesToSnippet(String... attributes) {
-        return set(KEY_ATTRIBUTES_TO_SNIPPET, buildJSONArray(attributes));
+        return (Query) setArray(KEY_ATTRIBUTES_TO_SNIPPET, attributes);
     }
 
     public String[] getAttributesToSnippet() {
-        return parseArray(get(KEY_ATTRIBUTES_TO_SNIPPET));
+        return getArray(KEY_ATTRIBUTES_TO_SNIPPET);
     }
 
     private static final String KEY_DISABLE_EXACT_ON_ATTRIBUTES = "disableExactOnAttributes";
@@ -320,11 +317,11 @@ public class Query extends AbstractQuery {
      * List of attributes on which you want to disable computation of the {@code exact} ranking criterion (must be a subset of the `searchableAttributes` index setting).
      */
     public @NonNull Query setDisableExactOnAttributes(String... attributes) {
-        return set(KEY_DISABLE_EXACT_ON_ATTRIBUTES, buildJSONArray(attributes));
+        return (Query) setArray(KEY_DISABLE_EXACT_ON_ATTRIBUTES, attributes);
     }
 
     public String[] getDisableExactOnAttributes() {
-        return parseArray(get(KEY_DISABLE_EXACT_ON_ATTRIBUTES));
+        return getArray(KEY_DISABLE_EXACT_ON_ATTRIBUTES);
     }
 
     private static final String KEY_DISABLE_TYPO_TOLERANCE_ON_ATTRIBUTES = "disableTypoToleranceOnAttributes";
@@ -333,11 +330,11 @@ public class Query extends AbstractQuery {
      * List of attributes on which you want to disable typo tolerance (must be a subset of the `searchableAttributes` index setting).
      */
     public @NonNull Query setDisableTypoToleranceOnAttributes(String... attributes) {
-        return set(KEY_DISABLE_TYPO_TOLERANCE_ON_ATTRIBUTES, buildJSONArray(attributes));
+        return (Query) setArray(KEY_DISABLE_TYPO_TOLERANCE_ON_ATTRIBUTES, attributes);
     }
 
     public String[] getDisableTypoToleranceOnAttributes() {
-        return parseArray(get(KEY_DISABLE_TYPO_TOLERANCE_ON_ATTRIBUTES));
+        return getArray(KEY_DISABLE_TYPO_TOLERANCE_ON_ATTRIBUTES);
     }
 
     private static final String KEY_DISTINCT = "distinct";
@@ -355,7 +352,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getDistinct() {
-        return parseInt(get(KEY_DISTINCT));
+        return getInt(KEY_DISTINCT);
     }
 
     private static final String KEY_FACETS = "facets";
@@ -367,11 +364,11 @@ public class Query extends AbstractQuery {
      * faceting on all attributes specified in **attributesForFaceting**.
      */
     public @NonNull Query setFacets(String... facets) {
-        return set(KEY_FACETS, buildJSONArray(facets));
+        return (Query) setArray(KEY_FACETS, facets);
     }
 
     public String[] getFacets() {
-        return parseArray(get(KEY_FACETS));
+        return getArray(KEY_FACETS);
     }
 
     private static final String KEY_FACET_FILTERS = "facetFilters";
@@ -405,7 +402,7 @@ public class Query extends AbstractQuery {
     private static final String KEY_FACETING_AFTER_DISTINCT = "facetingAfterDistinct";
 
     public @Nullable Boolean getFacetingAfterDistinct() {
-        return parseBoolean(get(KEY_FACETING_AFTER_DISTINCT));
+        return getBoolean(KEY_FACETING_AFTER_DISTINCT);
     }
 
     /**
@@ -453,7 +450,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getGetRankingInfo() {
-        return parseBoolean(get(KEY_GET_RANKING_INFO));
+        return getBoolean(KEY_GET_RANKING_INFO);
     }
 
     private static final String KEY_HIGHLIGHT_POST_TAG = "highlightPostTag";
@@ -486,7 +483,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getHitsPerPage() {
-        return parseInt(get(KEY_HITS_PER_PAGE));
+        return getInt(KEY_HITS_PER_PAGE);
     }
 
     private static final String KEY_IGNORE_PLURALS = "ignorePlurals";
@@ -545,7 +542,7 @@ public class Query extends AbstractQuery {
                 if (isEmptyCollection(languageCodes)) {  // enabled without specific language
                     return "true";
                 } else {
-                    return TextUtils.join(",", languageCodes);
+                    return buildCommaArray(languageCodes);
                 }
             }
         }
@@ -566,7 +563,7 @@ public class Query extends AbstractQuery {
                     return new IgnorePlurals(codesList);
                 } catch (JSONException e) {
                     // s was not a JSONArray of strings. Maybe it is a comma-separated list?
-                    final String[] split = TextUtils.split(s, ",");
+                    final String[] split = splitCommaArray(s);
                     if (split != null && split.length != 0) {
                         Collections.addAll(codesList, split);
                         return new IgnorePlurals(codesList);
@@ -787,11 +784,52 @@ public class Query extends AbstractQuery {
 
     private static final String KEY_INSIDE_POLYGON = "insidePolygon";
 
+    /**
+     * Native value of the `insidePolygon` parameter: a private copy of one or several polygons.
+     */
+    private static final class Polygons {
+        final @NonNull Polygon[] polygons;
+
+        Polygons(@NonNull Polygon... polygons) {
+            this.polygons = copy(polygons);
+        }
+
+        static @NonNull Polygon[] copy(@NonNull Polygon[] polygons) {
+            Polygon[] result = new Polygon[polygons.length];
+            for (int i = 0; i < polygons.length; ++i) {
+                result[i] = new Polygon(polygons[i].points.clone());
+            }
+            return result;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof Polygons && Arrays.equals(polygons, ((Polygons) o).polygons);
+        }
+
+        @Override public int hashCode() {
+            return Arrays.hashCode(polygons);
+        }
+
+        @Override public String toString() {
+            if (polygons.length == 1) {
+                return polygons[0].toString();
+            }
+            StringBuilder sb = new StringBuilder("[");
+            for (Polygon polygon : polygons) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                sb.append('[').append(polygon).append(']');
+            }
+            return sb.append(']').toString();
+        }
+    }
+
     /**
      * Search for entries inside a given area defined by the points of a polygon.
      */
     public @NonNull Query setInsidePolygon(@Nullable LatLng... points) {
-        set(KEY_INSIDE_POLYGON, points == null ? null : new Polygon(points).toString());
+        setValue(KEY_INSIDE_POLYGON, points == null ? null : new Polygons(new Polygon(points)));
         return this;
     }
 
@@ -799,28 +837,15 @@ public class Query extends AbstractQuery {
      * Search for entries inside a given area defined by several polygons.
      */
     public @NonNull Query setInsidePolygon(@Nullable Polygon... polygons) {
-        String insidePolygon = null;
-        if (polygons == null) {
-            insidePolygon = null;
-        } else if (polygons.length == 1) {
-            insidePolygon = polygons[0].toString();
-        } else {
-            for (Polygon polygon : polygons) {
-                String polygonStr = "[" + polygon + "]";
-                if (insidePolygon == null) {
-                    insidePolygon = "[";
-                } else {
-                    insidePolygon += ",";
-                }
-                insidePolygon += polygonStr;
-            }
-            insidePolygon += "]";
-        }
-        set(KEY_INSIDE_POLYGON, insidePolygon);
+        setValue(KEY_INSIDE_POLYGON, polygons == null ? null : new Polygons(polygons));
         return this;
     }
 
     public @Nullable Polygon[] getInsidePolygon() {
+        final Object nativeValue = getValue(KEY_INSIDE_POLYGON);
+        if (nativeValue instanceof Polygons) {
+            return Polygons.copy(((Polygons) nativeValue).polygons);
+        }
         try {
             String value = get(KEY_INSIDE_POLYGON);
             Polygon[] polygons;
@@ -856,7 +881,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getLength() {
-        return parseInt(get(KEY_LENGTH));
+        return getInt(KEY_LENGTH);
     }
 
 
@@ -870,7 +895,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMaxFacetHits() {
-        return parseInt(get(KEY_MAX_FACET_HITS));
+        return getInt(KEY_MAX_FACET_HITS);
     }
 
     private static final String KEY_MAX_VALUES_PER_FACET = "maxValuesPerFacet";
@@ -883,7 +908,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMaxValuesPerFacet() {
-        return parseInt(get(KEY_MAX_VALUES_PER_FACET));
+        return getInt(KEY_MAX_VALUES_PER_FACET);
     }
 
     private static final String KEY_MINIMUM_AROUND_RADIUS = "minimumAroundRadius";
@@ -897,7 +922,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMinimumAroundRadius() {
-        return parseInt(get(KEY_MINIMUM_AROUND_RADIUS));
+        return getInt(KEY_MINIMUM_AROUND_RADIUS);
     }
 
     private static final String KEY_MIN_PROXIMITY = "minProximity";
@@ -911,7 +936,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMinProximity() {
-        return parseInt(get(KEY_MIN_PROXIMITY));
+        return getInt(KEY_MIN_PROXIMITY);
     }
 
     private static final String KEY_MIN_WORD_SIZE_FOR_1_TYPO = "minWordSizefor1Typo";
@@ -925,7 +950,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMinWordSizefor1Typo() {
-        return parseInt(get(KEY_MIN_WORD_SIZE_FOR_1_TYPO));
+        return getInt(KEY_MIN_WORD_SIZE_FOR_1_TYPO);
     }
 
     private static final String KEY_MIN_WORD_SIZE_FOR_2_TYPOS = "minWordSizefor2Typos";
@@ -939,7 +964,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getMinWordSizefor2Typos() {
-        return parseInt(get(KEY_MIN_WORD_SIZE_FOR_2_TYPOS));
+        return getInt(KEY_MIN_WORD_SIZE_FOR_2_TYPOS);
     }
 
     private static final String KEY_NUMERIC_FILTERS = "numericFilters";
@@ -983,7 +1008,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getOffset() {
-        return parseInt(get(KEY_OFFSET));
+        return getInt(KEY_OFFSET);
     }
 
     private static final String KEY_OPTIONAL_WORDS = "optionalWords";
@@ -995,11 +1020,11 @@ public class Query extends AbstractQuery {
      * @param words The list of optional words, comma separated.
      */
     public @NonNull Query setOptionalWords(String... words) {
-        return set(KEY_OPTIONAL_WORDS, buildJSONArray(words));
+        return (Query) setArray(KEY_OPTIONAL_WORDS, words);
     }
 
     public String[] getOptionalWords() {
-        return parseArray(get(KEY_OPTIONAL_WORDS));
+        return getArray(KEY_OPTIONAL_WORDS);
     }
 
     private static final String KEY_PAGE = "page";
@@ -1012,7 +1037,7 @@ public class Query extends AbstractQuery {
     }
 
     public Integer getPage() {
-        return parseInt(get(KEY_PAGE));
+        return getInt(KEY_PAGE);
     }
 
     private static final String KEY_PERCENTILE_COMPUTATION = "percentileComputation";
@@ -1029,7 +1054,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getPercentileComputation() {
-        return parseBoolean(get(KEY_PERCENTILE_COMPUTATION));
+        return getBoolean(KEY_PERCENTILE_COMPUTATION);
     }
 
     private static final String KEY_QUERY = "query";
@@ -1168,7 +1193,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getReplaceSynonymsInHighlight() {
-        return parseBoolean(get(KEY_REPLACE_SYNONYMS_IN_HIGHLIGHT));
+        return getBoolean(KEY_REPLACE_SYNONYMS_IN_HIGHLIGHT);
     }
 
     private static final String KEY_RESTRICT_HIGHLIGHT_AND_SNIPPET = "restrictHighlightAndSnippetArrays";
@@ -1184,7 +1209,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getRestrictHighlightAndSnippetArrays() {
-        return parseBoolean(get(KEY_RESTRICT_HIGHLIGHT_AND_SNIPPET));
+        return getBoolean(KEY_RESTRICT_HIGHLIGHT_AND_SNIPPET);
     }
 
     private static final String KEY_RESTRICT_SEARCHABLE_ATTRIBUTES = "restrictSearchableAttributes";
@@ -1198,11 +1223,11 @@ public class Query extends AbstractQuery {
      * specified in `searchableAttributes` settings are used to search.
      */
     public @NonNull Query setRestrictSearchableAttributes(String... attributes) {
-        return set(KEY_RESTRICT_SEARCHABLE_ATTRIBUTES, buildJSONArray(attributes));
+        return (Query) setArray(KEY_RESTRICT_SEARCHABLE_ATTRIBUTES, attributes);
     }
 
     public String[] getRestrictSearchableAttributes() {
-        return parseArray(get(KEY_RESTRICT_SEARCHABLE_ATTRIBUTES));
+        return getArray(KEY_RESTRICT_SEARCHABLE_ATTRIBUTES);
     }
 
     private static final String KEY_RULE_CONTEXTS = "ruleContexts";
@@ -1215,11 +1240,11 @@ public class Query extends AbstractQuery {
      * @param ruleContexts one or several contexts.
      */
     public @NonNull Query setRuleContexts(String... ruleContexts) {
-        return set(KEY_RULE_CONTEXTS, buildJSONArray(ruleContexts));
+        return (Query) setArray(KEY_RULE_CONTEXTS, ruleContexts);
     }
 
     public @Nullable String[] getRuleContexts() {
-        return parseArray(get(KEY_RULE_CONTEXTS));
+        return getArray(KEY_RULE_CONTEXTS);
     }
 
     private static final String KEY_SNIPPET_ELLIPSIS_TEXT = "snippetEllipsisText";
@@ -1247,7 +1272,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getSynonyms() {
-        return parseBoolean(get(KEY_SYNONYMS));
+        return getBoolean(KEY_SYNONYMS);
     }
 
     private static final String KEY_TAG_FILTERS = "tagFilters";
@@ -1356,7 +1381,7 @@ public class Query extends AbstractQuery {
     }
 
     public Boolean getEnableRules() {
-        return parseBoolean(get(KEY_ENABLE_RULES));
+        return getBoolean(KEY_ENABLE_RULES);
     }
 
 
@@ -1380,7 +1405,7 @@ public class Query extends AbstractQuery {
                         break;
                 }
             }
-            String alternatives = TextUtils.join(",", stringList);
+            String alternatives = buildCommaArray(stringList);
             set(KEY_ALTERNATIVES_AS_EXACT, alternatives);
         }
         return this;
@@ -1392,7 +1417,7 @@ public class Query extends AbstractQuery {
             return null;
         }
 
-        String[] stringList = TextUtils.split(alternativesStr, ",");
+        String[] stringList = splitCommaArray(alternativesStr);
         AlternativesAsExact[] alternatives = new AlternativesAsExact[stringList.length];
 
         for (int i = 0, stringListLength = stringList.length; i < stringListLength; i++) {
@@ -1420,14 +1445,14 @@ public class Query extends AbstractQuery {
      * By default, all fields are returned. If this parameter is specified, only the fields explicitly listed will be returned, unless * is used, in which case all fields are returned. Specifying an empty list or unknown field names is an error.
      */
     public @NonNull Query setResponseFields(String... attributes) {
-        return set(KEY_RESPONSE_FIELDS, buildJSONArray(attributes));
+        return (Query) setArray(KEY_RESPONSE_FIELDS, attributes);
     }
 
     /**
      * Get the fields the response will contain. If unspecified, all fields are returned.
      */
     public String[] getResponseFields() {
-        return parseArray(get(KEY_RESPONSE_FIELDS));
+        return getArray(KEY_RESPONSE_FIELDS);
     }
     // ----------------------------------------------------------------------
     // Parsing/serialization
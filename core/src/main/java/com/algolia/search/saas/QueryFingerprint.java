@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A compact, 128-bit fingerprint of a query's serialized form, used as a key for searches instead of the
+ * (potentially long) query string.
+ * <p>
+ * Fingerprints are deterministic: two queries with the same serialized form always have the same fingerprint, across
+ * copies and across runs. They are computed with two independent 64-bit hashes, so that the odds of two different
+ * queries colliding are negligible even for large caches.
+ * </p>
+ */
+final class QueryFingerprint {
+    /** Fingerprint of an empty query. */
+    static final QueryFingerprint EMPTY = new QueryFingerprint(0, 0);
+
+    // Multipliers of the two hashes (respectively from FNV-1a and MurmurHash64A).
+    private static final long MULTIPLIER_HIGH = 0x100000001b3L;
+    private static final long MULTIPLIER_LOW = 0xc6a4a7935bd1e995L;
+
+    /** High-order 64 bits. */
+    final long high;
+
+    /** Low-order 64 bits. */
+    final long low;
+
+    private QueryFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Compute the fingerprint of a string.
+     *
+     * @param string The string to fingerprint; typically a URL-encoded `name=value` parameter.
+     * @return The string's fingerprint.
+     */
+    static @NonNull QueryFingerprint of(@NonNull String string) {
+        long high = 0xcbf29ce484222325L;
+        long low = string.length();
+        for (int i = 0; i < string.length(); ++i) {
+            final char c = string.charAt(i);
+            high = (high ^ c) * MULTIPLIER_HIGH;
+            low = (low ^ c) * MULTIPLIER_LOW;
+            low ^= low >>> 47;
+        }
+        return new QueryFingerprint(mix(high), mix(low));
+    }
+
+    /**
+     * Combine this fingerprint with the next one in a sequence. The combination depends on the order.
+     *
+     * @param next The fingerprint to append.
+     * @return The fingerprint of the sequence.
+     */
+    @NonNull QueryFingerprint append(@NonNull QueryFingerprint next) {
+        return new QueryFingerprint(mix(high * MULTIPLIER_HIGH + next.high), mix(low * MULTIPLIER_LOW + next.low));
+    }
+
+    /** Finalization step of MurmurHash3, so that every input bit affects every output bit. */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof QueryFingerprint)) {
+            return false;
+        }
+        final QueryFingerprint fingerprint = (QueryFingerprint) other;
+        return high == fingerprint.high && low == fingerprint.low;
+    }
+
+    @Override
+    public int hashCode() {
+        // NOTE: Bits are already well mixed.
+        return (int) low;
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Listener for the successive phases of the network calls made by a client, e.g. to measure where time is spent.
+ * <p>
+ * A network call (identified by a call ID, unique within the client) goes through the following phases:
+ * {@link #callStart}, then for each host tried: {@link #hostSelected}, {@link #connectStart}, {@link #connectEnd},
+ * {@link #requestBodyEnd} (only if the request has a body), {@link #responseStart}, {@link #responseBodyEnd}; then
+ * {@link #jsonParsed} (only if the response is decoded), and finally {@link #callEnd}. Any host but the first is
+ * announced by {@link #retry}. A phase may be skipped if the host fails during the previous one.
+ * </p>
+ * <p>
+ * A search on an index whose search cache is enabled first reports {@link #cacheHit} or {@link #cacheMiss}, right
+ * after {@link #callStart}. A cache hit involves no host: it is directly followed by {@link #jsonParsed}.
+ * </p>
+ * <p>
+ * Callbacks are invoked synchronously, on the thread performing the network call: they must be fast and thread-safe.
+ * They carry no timestamp; use `System.nanoTime()` to time the phases. When request hedging is enabled, the phases of
+ * several hosts may be reported concurrently for the same call.
+ * </p>
+ * <p>
+ * All methods do nothing by default. Override the ones you are interested in.
+ * </p>
+ */
+public abstract class RequestEventListener
+{
+    /**
+     * A network call is starting.
+     * @param callId The call's ID.
+     * @param method The HTTP method (e.g. `GET`).
+     * @param path The requested path, including the query string.
+     */
+    public void callStart(long callId, @NonNull String method, @NonNull String path) {}
+
+    /**
+     * A host has been chosen to serve the call.
+     * @param callId The call's ID.
+     * @param host The host.
+     */
+    public void hostSelected(long callId, @NonNull String host) {}
+
+    /**
+     * A connection to a host is being established.
+     * @param callId The call's ID.
+     * @param host The host.
+     */
+    public void connectStart(long callId, @NonNull String host) {}
+
+    /**
+     * A connection to a host has been established. (It may have been reused from a previous call.)
+     * @param callId The call's ID.
+     * @param host The host.
+     */
+    public void connectEnd(long callId, @NonNull String host) {}
+
+    /**
+     * The request body has been written.
+     * @param callId The call's ID.
+     * @param host The host.
+     * @param byteCount Number of bytes sent, after compression.
+     */
+    public void requestBodyEnd(long callId, @NonNull String host, long byteCount) {}
+
+    /**
+     * The first byte of the response has been received, i.e. the server has answered.
+     * @param callId The call's ID.
+     * @param host The host.
+     * @param statusCode The response's HTTP status code.
+     */
+    public void responseStart(long callId, @NonNull String host, int statusCode) {}
+
+    /**
+     * The response body has been entirely read.
+     * @param callId The call's ID.
+     * @param host The host.
+     * @param byteCount Number of bytes received, after decompression.
+     */
+    public void responseBodyEnd(long callId, @NonNull String host, long byteCount) {}
+
+    /**
+     * A call is about to try another host, the previous one having failed (or being too slow, when hedging).
+     * @param callId The call's ID.
+     * @param host The next host to be tried.
+     * @param retryCount Number of retries so far, including this one.
+     * @param backoff Delay before the retry (ms).
+     */
+    public void retry(long callId, @NonNull String host, int retryCount, long backoff) {}
+
+    /**
+     * The response body has been decoded as JSON.
+     * Not reported for calls returning the raw response.
+     * @param callId The call's ID.
+     * @param byteCount Number of bytes decoded.
+     */
+    public void jsonParsed(long callId, long byteCount) {}
+
+    /**
+     * A network call has completed.
+     * @param callId The call's ID.
+     * @param error The error that made the call fail, or null if it succeeded.
+     */
+    public void callEnd(long callId, @Nullable AlgoliaException error) {}
+
+    /**
+     * A search has been served from an index's search cache, without contacting any host.
+     * @param callId The call's ID.
+     * @param indexName The index's name.
+     * @param byteCount Size of the cached response (bytes).
+     */
+    public void cacheHit(long callId, @NonNull String indexName, long byteCount) {}
+
+    /**
+     * A search could not be served from an index's search cache (which is enabled), and will hit the network.
+     * @param callId The call's ID.
+     * @param indexName The index's name.
+     */
+    public void cacheMiss(long callId, @NonNull String indexName) {}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+/**
+ * Options applying to a single API call, overriding the client's settings for that call.
+ */
+public class RequestOptions {
+    /** End-to-end timeout (ms), or 0 to use the client's default. */
+    private int timeout = 0;
+
+    /**
+     * Construct default options.
+     */
+    public RequestOptions() {
+    }
+
+    /**
+     * Get the end-to-end timeout of the call.
+     *
+     * @return The timeout (ms), or 0 if the client's default applies.
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Set the end-to-end timeout of the call.
+     * Unlike the client's connect and read timeouts, which apply to each host separately, this timeout bounds the
+     * whole call, including retries on other hosts. See {@link AbstractClient#setRequestTimeout(int)}.
+     *
+     * @param timeout The timeout (ms), or 0 to use the client's default.
+     * @return This instance (for chaining).
+     */
+    public RequestOptions setTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.timeout = timeout;
+        return this;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The body of an HTTP response, held in memory.
+ * <p>
+ * The stream is read directly into a single growable array, without any intermediate chunk; the body can then be
+ * decoded from that array without copying it again. When the body's size is known in advance, the array is sized
+ * accordingly and never needs to grow. The announced size is not trusted beyond {@link #MAX_EXPECTED_CAPACITY}: larger
+ * bodies start from that capacity and grow as data actually arrives.
+ * </p>
+ * <p>
+ * Arrays are taken from, and given back to, a {@link ByteArrayPool}. Once it is no longer needed, a buffer must be
+ * {@link #release() released}.
+ * </p>
+ */
+class ResponseBuffer {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Initial capacity when the body's size is unknown. */
+    static final int DEFAULT_CAPACITY = 8192;
+
+    /** Maximum initial capacity when the body's size is known. */
+    static final int MAX_EXPECTED_CAPACITY = 1024 * 1024;
+
+    /** Pool from which arrays are taken. */
+    private final @NonNull ByteArrayPool pool;
+
+    /** Storage. Only the first `count` bytes are significant. Null once released. */
+    private byte[] buf;
+
+    /** Number of bytes in the buffer. */
+    private int count;
+
+    /**
+     * Construct a new buffer.
+     *
+     * @param pool         Pool from which arrays are taken.
+     * @param expectedSize Expected size of the body (bytes), or a negative value if unknown.
+     */
+    ResponseBuffer(@NonNull ByteArrayPool pool, int expectedSize) {
+        this.pool = pool;
+        // NOTE: The expected size comes from the server; a bogus value must not trigger a huge allocation up front.
+        buf = pool.acquire(expectedSize >= 0 ? Math.min(expectedSize, MAX_EXPECTED_CAPACITY) : DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Read a stream until its end, appending its content to this buffer. The stream is not closed.
+     *
+     * @param stream The stream to read.
+     * @return This instance, for chaining.
+     * @throws IOException If the stream cannot be read.
+     */
+    @NonNull ResponseBuffer readFrom(@NonNull InputStream stream) throws IOException {
+        while (true) {
+            if (count == buf.length) {
+                // Probe for the end of the stream before growing: an exactly sized buffer should stay as is.
+                int next = stream.read();
+                if (next == -1) {
+                    return this;
+                }
+                byte[] newBuf = pool.acquire(Math.max(DEFAULT_CAPACITY, buf.length * 2));
+                System.arraycopy(buf, 0, newBuf, 0, count);
+                pool.release(buf);
+                buf = newBuf;
+                buf[count++] = (byte) next;
+            }
+            int read = stream.read(buf, count, buf.length - count);
+            if (read == -1) {
+                return this;
+            }
+            count += read;
+        }
+    }
+
+    /**
+     * @return The number of bytes in this buffer.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Extract the content of this buffer.
+     * If the buffer is exactly full, its storage is handed over without any copy; otherwise (e.g. when the pool
+     * handed out a larger array than needed) its content is copied. Either way, the buffer is then released.
+     *
+     * @return An array containing exactly the buffer's content, owned by the caller.
+     */
+    @NonNull byte[] toByteArray() {
+        if (count == buf.length) {
+            byte[] result = buf;
+            buf = null;
+            return result;
+        }
+        byte[] result = Arrays.copyOf(buf, count);
+        release();
+        return result;
+    }
+
+    /**
+     * Decode the content of this buffer as UTF-8 text.
+     *
+     * @return The decoded text.
+     */
+    @Override
+    public @NonNull String toString() {
+        return new String(buf, 0, count, UTF_8);
+    }
+
+    /**
+     * Decode the content of this buffer as a JSON object.
+     *
+     * @return The decoded object.
+     * @throws JSONException If the content is not a valid JSON object.
+     */
+    @NonNull JSONObject toJSONObject() throws JSONException {
+        return new JSONObject(new JSONTokener(toString()));
+    }
+
+    /**
+     * Give this buffer's storage back to the pool. The buffer must not be used afterwards.
+     * Releasing a buffer more than once has no effect.
+     */
+    void release() {
+        if (buf != null) {
+            pool.release(buf);
+            buf = null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.algolia.search.saas;
+
+import java.util.Random;
+
+/**
+ * Governs how a client retries a failed request on the next host.
+ * <p>
+ * Between two attempts, the client waits for an exponentially increasing delay, randomized to avoid synchronized
+ * retries from many clients ("full jitter"). When the server specifies a `Retry-After` header (typically along with a
+ * 429 or 503 status code), it is honored instead, within a limit.
+ * </p>
+ * <p>
+ * To avoid overloading the service during a partial outage, retries are also limited by a budget: each request earns
+ * a fraction of a retry token, and each retry spends a whole token. Retries therefore cannot exceed a fixed proportion
+ * of the request volume, plus a small burst allowance. When the budget is exhausted, failed requests are not retried.
+ * </p>
+ * <p>
+ * A policy is shared by all requests of a client, and is thread-safe.
+ * </p>
+ */
+public class RetryPolicy {
+    // ----------------------------------------------------------------------
+    // Constants
+    // ----------------------------------------------------------------------
+
+    /** Default delay before the first retry (ms). */
+    public static final int DEFAULT_INITIAL_BACKOFF = 100;
+
+    /** Default maximum delay between two attempts (ms). */
+    public static final int DEFAULT_MAX_BACKOFF = 2000;
+
+    /** Default maximum delay honored from a `Retry-After` header (ms). */
+    public static final int DEFAULT_MAX_RETRY_AFTER = 10000;
+
+    /** Default proportion of requests that may be retried. */
+    public static final double DEFAULT_RETRY_RATIO = 0.2;
+
+    /** Default number of retries allowed in a burst. */
+    public static final int DEFAULT_MAX_RETRY_TOKENS = 10;
+
+    // ----------------------------------------------------------------------
+    // Fields
+    // ----------------------------------------------------------------------
+
+    /** Delay before the first retry (ms). */
+    private int initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+    /** Maximum delay between two attempts (ms). */
+    private int maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    /** Maximum delay honored from a `Retry-After` header (ms). */
+    private int maxRetryAfter = DEFAULT_MAX_RETRY_AFTER;
+
+    /** Retry tokens earned by each request. */
+    private double retryRatio = DEFAULT_RETRY_RATIO;
+
+    /** Capacity of the retry token bucket. */
+    private int maxRetryTokens = DEFAULT_MAX_RETRY_TOKENS;
+
+    /** Retry tokens currently available. */
+    private double retryTokens = DEFAULT_MAX_RETRY_TOKENS;
+
+    private final Random random = new Random();
+
+    // ----------------------------------------------------------------------
+    // Accessors
+    // ----------------------------------------------------------------------
+
+    /**
+     * Get the delay before the first retry.
+     *
+     * @return The initial delay (ms).
+     */
+    public synchronized int getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Set the delay before the first retry. The delay doubles with each subsequent retry.
+     *
+     * @param initialBackoff The initial delay (ms). 0 disables backoff.
+     * @return This instance (for chaining).
+     */
+    public synchronized RetryPolicy setInitialBackoff(int initialBackoff) {
+        if (initialBackoff < 0) {
+            throw new IllegalArgumentException("Backoff cannot be negative");
+        }
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    /**
+     * Get the maximum delay between two attempts.
+     *
+     * @return The maximum delay (ms).
+     */
+    public synchronized int getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Set the maximum delay between two attempts.
+     *
+     * @param maxBackoff The maximum delay (ms).
+     * @return This instance (for chaining).
+     */
+    public synchronized RetryPolicy setMaxBackoff(int maxBackoff) {
+        if (maxBackoff < 0) {
+            throw new IllegalArgumentException("Backoff cannot be negative");
+        }
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Get the maximum delay honored from a `Retry-After` header.
+     *
+     * @return The maximum delay (ms).
+     */
+    public synchronized int getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * Set the maximum delay honored from a `Retry-After` header. Longer delays are truncated.
+     *
+     * @param maxRetryAfter The maximum delay (ms).
+     * @return This instance (for chaining).
+     */
+    public synchronized RetryPolicy setMaxRetryAfter(int maxRetryAfter) {
+        if (maxRetryAfter < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative");
+        }
+        this.maxRetryAfter = maxRetryAfter;
+        return this;
+    }
+
+    /**
+     * Get the proportion of requests that may be retried, in the long run.
+     *
+     * @return The retry ratio.
+     */
+    public synchronized double getRetryRatio() {
+        return retryRatio;
+    }
+
+    /**
+     * Set the proportion of requests that may be retried, in the long run.
+     *
+     * @param retryRatio The retry ratio, between 0 and 1.
+     * @return This instance (for chaining).
+     */
+    public synchronized RetryPolicy setRetryRatio(double retryRatio) {
+        if (retryRatio < 0 || retryRatio > 1) {
+            throw new IllegalArgumentException("Ratio must be within [0, 1]");
+        }
+        this.retryRatio = retryRatio;
+        return this;
+    }
+
+    /**
+     * Get the number of retries allowed in a burst.
+     *
+     * @return The burst size.
+     */
+    public synchronized int getMaxRetryTokens() {
+        return maxRetryTokens;
+    }
+
+    /**
+     * Set the number of retries allowed in a burst, i.e. the capacity of the retry budget.
+     * The budget is refilled to that capacity.
+     *
+     * @param maxRetryTokens The burst size.
+     * @return This instance (for chaining).
+     */
+    public synchronized RetryPolicy setMaxRetryTokens(int maxRetryTokens) {
+        if (maxRetryTokens < 0) {
+            throw new IllegalArgumentException("Token count cannot be negative");
+        }
+        this.maxRetryTokens = maxRetryTokens;
+        this.retryTokens = maxRetryTokens;
+        return this;
+    }
+
+    // ----------------------------------------------------------------------
+    // Retry logic
+    // ----------------------------------------------------------------------
+
+    /**
+     * Notify this policy that a new request is starting. Earns a fraction of a retry token.
+     */
+    synchronized void onRequest() {
+        retryTokens = Math.min(maxRetryTokens, retryTokens + retryRatio);
+    }
+
+    /**
+     * Try to spend a retry token.
+     *
+     * @return true if a retry is allowed, false if the retry budget is exhausted.
+     */
+    synchronized boolean tryRetry() {
+        if (retryTokens < 1) {
+            return false;
+        }
+        retryTokens -= 1;
+        return true;
+    }
+
+    /**
+     * Compute the delay to wait before a retry.
+     *
+     * @param retryCount Number of retries already made for this request.
+     * @param retryAfter Delay requested by the server (ms), or a negative value if none.
+     * @return The delay to wait (ms).
+     */
+    synchronized long getBackoff(int retryCount, long retryAfter) {
+        if (retryAfter >= 0) {
+            return Math.min(retryAfter, maxRetryAfter);
+        }
+        if (initialBackoff == 0) {
+            return 0;
+        }
+        final long ceiling = Math.min(maxBackoff, (long) initialBackoff << Math.min(retryCount, 30));
+        return (long) (random.nextDouble() * ceiling);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2012-2016 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequence of searches on an index, where only the latest one matters, as in "search as you type".
+ * <p>
+ * Starting a search supersedes all the previous ones: they are cancelled, which aborts their network call if it is
+ * still running. A superseded search never calls its completion handler, even if its response arrives after the
+ * new search has started. Thus, results are always delivered in order, and never overwritten by stale ones.
+ * </p>
+ * <p>
+ * Searches may also be debounced (see {@link #setDebounceDelay(int)}): a search is then only sent once no other
+ * search has been started for a while, so that a burst of keystrokes results in a single request. To bound the
+ * latency, a search is never delayed beyond a maximum wait since the beginning of the burst (see
+ * {@link #setMaxDebounceWait(int)}). Searches whose results are in the index's search cache are never delayed.
+ * </p>
+ * <p>
+ * Obtain an instance via {@link Index#newSearchSession()}. This class is thread-safe.
+ * </p>
+ */
+public class SearchSession {
+    /** The index targeted by this session. */
+    private final @NonNull Index index;
+
+    /** Sequence number of the latest search. */
+    private long sequenceNumber = 0;
+
+    /** The latest search, if still running. */
+    private Request pendingRequest;
+
+    /** Delay without new searches after which a debounced search is sent (ms). 0 disables debouncing. */
+    private int debounceDelay = 0;
+
+    /** Maximum time a search may be delayed since the beginning of a burst (ms). 0 means no limit. */
+    private int maxDebounceWait = 0;
+
+    /** When the current burst of debounced searches began (in `System.nanoTime()` units). */
+    private long burstStartTime;
+
+    /** Number of searches superseded or cancelled before they were even sent. */
+    private int suppressedSearchCount = 0;
+
+    /** Scheduler used to send debounced searches, on the main thread. */
+    private final Platform.Scheduler scheduler = Platform.get().newScheduler();
+
+    SearchSession(@NonNull Index index) {
+        this.index = index;
+    }
+
+    // ----------------------------------------------------------------------
+    // Accessors
+    // ----------------------------------------------------------------------
+
+    /**
+     * Get the index targeted by this session.
+     *
+     * @return The index.
+     */
+    public @NonNull Index getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the delay without new searches after which a debounced search is sent.
+     *
+     * @return The debounce delay (ms), or 0 if debouncing is disabled.
+     */
+    public synchronized int getDebounceDelay() {
+        return debounceDelay;
+    }
+
+    /**
+     * Set the delay without new searches after which a debounced search is sent.
+     *
+     * @param debounceDelay The debounce delay (ms), or 0 to disable debouncing (default).
+     */
+    public synchronized void setDebounceDelay(int debounceDelay) {
+        if (debounceDelay < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative");
+        }
+        this.debounceDelay = debounceDelay;
+    }
+
+    /**
+     * Get the maximum time a search may be delayed since the beginning of a burst.
+     *
+     * @return The maximum wait (ms), or 0 if there is no limit.
+     */
+    public synchronized int getMaxDebounceWait() {
+        return maxDebounceWait;
+    }
+
+    /**
+     * Set the maximum time a search may be delayed since the beginning of a burst.
+     * When searches keep coming faster than the debounce delay, this ensures that results are still refreshed
+     * regularly.
+     *
+     * @param maxDebounceWait The maximum wait (ms), or 0 for no limit (default).
+     */
+    public synchronized void setMaxDebounceWait(int maxDebounceWait) {
+        if (maxDebounceWait < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative");
+        }
+        this.maxDebounceWait = maxDebounceWait;
+    }
+
+    /**
+     * Get the number of searches that were superseded or cancelled before they were even sent, thus saving a
+     * request.
+     *
+     * @return The number of suppressed searches.
+     */
+    public synchronized int getSuppressedSearchCount() {
+        return suppressedSearchCount;
+    }
+
+    /**
+     * Get the sequence number of the latest search. It is incremented each time a search is started or cancelled.
+     *
+     * @return The latest sequence number.
+     */
+    public synchronized long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    // ----------------------------------------------------------------------
+    // Operations
+    // ----------------------------------------------------------------------
+
+    /**
+     * Start a new search, superseding the previous ones.
+     *
+     * @param query             Search parameters. May be null to use an empty query.
+     * @param completionHandler The listener that will be notified of the request's outcome, unless the search is
+     *                          superseded first.
+     * @return A cancellable request.
+     */
+    public Request searchAsync(@Nullable Query query, @Nullable CompletionHandler completionHandler) {
+        return searchAsync(query, null, completionHandler);
+    }
+
+    /**
+     * Start a new search, superseding the previous ones.
+     *
+     * @param query             Search parameters. May be null to use an empty query.
+     * @param requestOptions    Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome, unless the search is
+     *                          superseded first.
+     * @return A cancellable request.
+     */
+    public synchronized Request searchAsync(@Nullable Query query, @Nullable RequestOptions requestOptions, @Nullable CompletionHandler completionHandler) {
+        final boolean burstInProgress = pendingRequest instanceof DebouncedSearch && !((DebouncedSearch) pendingRequest).isSent();
+        if (pendingRequest != null) {
+            pendingRequest.cancel();
+        }
+        final long searchSequenceNumber = ++sequenceNumber;
+        final Query queryCopy = query != null ? new Query(query) : new Query();
+        if (debounceDelay == 0 || index.hasCachedSearch(queryCopy)) {
+            pendingRequest = startSearch(searchSequenceNumber, queryCopy, requestOptions, completionHandler);
+            return pendingRequest;
+        }
+        final long now = System.nanoTime();
+        if (!burstInProgress) {
+            burstStartTime = now;
+        }
+        long delay = debounceDelay;
+        if (maxDebounceWait > 0) {
+            final long remainingWait = maxDebounceWait - TimeUnit.NANOSECONDS.toMillis(now - burstStartTime);
+            delay = Math.max(0, Math.min(delay, remainingWait));
+        }
+        DebouncedSearch search = new DebouncedSearch(searchSequenceNumber, queryCopy, requestOptions, completionHandler);
+        scheduler.schedule(search, delay);
+        pendingRequest = search;
+        return search;
+    }
+
+    /**
+     * Cancel the latest search, if still running. Its completion handler will not be called.
+     */
+    public synchronized void cancel() {
+        // NOTE: Bumping the sequence number ensures that a response already on its way is dropped.
+        ++sequenceNumber;
+        if (pendingRequest != null) {
+            pendingRequest.cancel();
+            pendingRequest = null;
+        }
+    }
+
+    /**
+     * Send a search to the index.
+     *
+     * @param searchSequenceNumber Sequence number of the search.
+     * @param query                Search parameters.
+     * @param requestOptions       Options for this request. May be null.
+     * @param completionHandler    The listener to notify, unless the search is superseded first.
+     * @return The network request.
+     */
+    private Request startSearch(final long searchSequenceNumber, @NonNull Query query, @Nullable RequestOptions requestOptions, @Nullable final CompletionHandler completionHandler) {
+        return index.searchAsync(query, requestOptions, new CompletionHandler() {
+            @Override
+            public void requestCompleted(JSONObject content, AlgoliaException error) {
+                synchronized (SearchSession.this) {
+                    // NOTE: Cancellation may race with the delivery of the response: check that it is still current.
+                    if (searchSequenceNumber != sequenceNumber) {
+                        return;
+                    }
+                    pendingRequest = null;
+                }
+                if (completionHandler != null) {
+                    completionHandler.requestCompleted(content, error);
+                }
+            }
+        });
+    }
+
+    /**
+     * A search waiting for the debounce delay to elapse before being sent.
+     */
+    private class DebouncedSearch implements Request, Runnable {
+        private final long searchSequenceNumber;
+        private final @NonNull Query query;
+        private final @Nullable RequestOptions requestOptions;
+        private final @Nullable CompletionHandler completionHandler;
+
+        /** The network request, once sent. Guarded by the session. */
+        private Request request;
+
+        /** Guarded by the session. */
+        private boolean cancelled;
+
+        DebouncedSearch(long searchSequenceNumber, @NonNull Query query, @Nullable RequestOptions requestOptions, @Nullable CompletionHandler completionHandler) {
+            this.searchSequenceNumber = searchSequenceNumber;
+            this.query = query;
+            this.requestOptions = requestOptions;
+            this.completionHandler = completionHandler;
+        }
+
+        @Override
+        public void run() {
+            synchronized (SearchSession.this) {
+                if (cancelled) {
+                    return;
+                }
+                request = startSearch(searchSequenceNumber, query, requestOptions, completionHandler);
+            }
+        }
+
+        boolean isSent() {
+            synchronized (SearchSession.this) {
+                return request != null;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (SearchSession.this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                if (request != null) {
+                    request.cancel();
+                } else {
+                    scheduler.cancel(this);
+                    suppressedSearchCount += 1;
+                }
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            synchronized (SearchSession.this) {
+                return cancelled || (request != null && request.isFinished());
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            synchronized (SearchSession.this) {
+                return cancelled;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+
+/**
+ * The HTTP stack used by a client to talk to the API.
+ * <p>
+ * The client drives each network call through the successive phases of a {@link Connection}: setting headers,
+ * writing the body (if any), then reading the response. It takes care of host selection, retries and decoding; a
+ * transport only needs to move bytes.
+ * </p>
+ * <p>
+ * The default implementation is {@link HttpURLConnectionTransport}. You may plug in your own HTTP stack via
+ * {@link AbstractClient#setTransport(Transport)}.
+ * </p>
+ */
+public interface Transport {
+    /**
+     * Open a connection to the specified URL.
+     * The connection does not need to be established right away; it may be deferred until the request body or the
+     * response is first accessed.
+     *
+     * @param url            The URL to request.
+     * @param method         The HTTP method to use (e.g. `GET`).
+     * @param connectTimeout Maximum time to wait while establishing the connection (ms).
+     * @param readTimeout    Maximum time to wait for data on the socket (ms).
+     * @return A new connection.
+     * @throws IOException If the connection cannot be opened.
+     */
+    @NonNull Connection open(@NonNull URL url, @NonNull String method, int connectTimeout, int readTimeout) throws IOException;
+
+    /**
+     * A single HTTP exchange with a host.
+     * <p>
+     * Methods are called in the following order: {@link #setRequestHeader(String, String)} (any number of times),
+     * either {@link #getRequestBody(long)} or {@link #connect()} (at most once), {@link #getResponseCode()},
+     * {@link #getResponseHeader(String)} and {@link #getResponseBody()}, and finally {@link #release(boolean)}
+     * (exactly once).
+     * </p>
+     */
+    interface Connection {
+        /**
+         * Set a request header.
+         *
+         * @param name  Header name.
+         * @param value Header value.
+         */
+        void setRequestHeader(@NonNull String name, @NonNull String value);
+
+        /**
+         * Get a stream to write the request body into. The caller closes the stream when done.
+         * The body should be streamed to the network rather than buffered, so that large bodies are never held in
+         * memory entirely.
+         *
+         * @param contentLength Length of the body (bytes), or -1 if unknown, in which case the body may be sent with
+         *                      chunked transfer encoding.
+         * @return The request body stream.
+         * @throws IOException If the request cannot be sent.
+         */
+        @NonNull OutputStream getRequestBody(long contentLength) throws IOException;
+
+        /**
+         * Establish the connection, for a request without a body. (Requests with a body are connected by
+         * {@link #getRequestBody(long)}.)
+         * Calling this method is optional: the connection must otherwise be established when the response is first
+         * accessed.
+         *
+         * @throws IOException If the connection cannot be established.
+         */
+        void connect() throws IOException;
+
+        /**
+         * Get the response's HTTP status code, waiting for the response if necessary.
+         *
+         * @return The HTTP status code.
+         * @throws IOException If no valid response could be obtained.
+         */
+        int getResponseCode() throws IOException;
+
+        /**
+         * Get a response header.
+         *
+         * @param name Header name.
+         * @return The header's value, or null if absent.
+         */
+        @Nullable String getResponseHeader(@NonNull String name);
+
+        /**
+         * Get the response body, whatever the status code. The caller closes the stream when done.
+         *
+         * @return The response body, or null if the response has no body.
+         * @throws IOException If the body cannot be read.
+         */
+        @Nullable InputStream getResponseBody() throws IOException;
+
+        /**
+         * Release this connection.
+         *
+         * @param reusable true if the response has been entirely consumed and the underlying connection may be kept
+         *                 alive for subsequent requests; false if it should be torn down.
+         */
+        void release(boolean reusable);
+
+        /**
+         * Abort this connection, typically from another thread.
+         * Any pending or subsequent I/O operation on this connection should fail with an `IOException`.
+         */
+        void cancel();
+    }
+}
@@ -109,7 +109,7 @@ public abstract class DisjunctiveFaceting {
      * @param refinements       The current refinements, mapping facet names to a list of values.
      * @return A list of queries suitable for {@link Index#multipleQueries}.
      */
-    static private @NonNull List<Query> computeDisjunctiveFacetingQueries(@NonNull Query query, @NonNull List<String> disjunctiveFacets, @NonNull Map<String, List<String>> refinements) {
+    static @NonNull List<Query> computeDisjunctiveFacetingQueries(@NonNull Query query, @NonNull List<String> disjunctiveFacets, @NonNull Map<String, List<String>> refinements) {
         // Retain only refinements corresponding to the disjunctive facets.
         Map<String, List<String>> disjunctiveRefinements = computeDisjunctiveRefinements(disjunctiveFacets, refinements);
 
@@ -205,7 +205,7 @@ public abstract class DisjunctiveFaceting {
      * @return The aggregated results.
      * @throws AlgoliaException
      */
-    static private JSONObject aggregateDisjunctiveFacetingResults(@NonNull JSONObject answers, @NonNull List<String> disjunctiveFacets, @NonNull Map<String, List<String>> refinements) throws AlgoliaException
+    static JSONObject aggregateDisjunctiveFacetingResults(@NonNull JSONObject answers, @NonNull List<String> disjunctiveFacets, @NonNull Map<String, List<String>> refinements) throws AlgoliaException
     {
         Map<String, List<String>> disjunctiveRefinements = computeDisjunctiveRefinements(disjunctiveFacets, refinements);
 
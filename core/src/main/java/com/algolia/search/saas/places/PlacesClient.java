@@ -24,11 +24,13 @@
 package com.algolia.search.saas.places;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.algolia.search.saas.AbstractClient;
 import com.algolia.search.saas.AlgoliaException;
 import com.algolia.search.saas.CompletionHandler;
 import com.algolia.search.saas.Request;
+import com.algolia.search.saas.RequestOptions;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -99,8 +101,20 @@ public class PlacesClient extends AbstractClient {
      * @return A cancellable request.
      */
     public Request searchAsync(@NonNull PlacesQuery params, @NonNull CompletionHandler completionHandler) {
+        return searchAsync(params, null, completionHandler);
+    }
+
+    /**
+     * Search for places.
+     *
+     * @param params Search parameters.
+     * @param requestOptions Options for this request. May be null to use the client's settings.
+     * @param completionHandler The listener that will be notified of the request's outcome.
+     * @return A cancellable request.
+     */
+    public Request searchAsync(@NonNull PlacesQuery params, @Nullable RequestOptions requestOptions, @NonNull CompletionHandler completionHandler) {
         final PlacesQuery paramsCopy = new PlacesQuery(params);
-        return new AsyncTaskRequest(completionHandler) {
+        return new AsyncTaskRequest(completionHandler, requestOptions) {
             @Override
             protected @NonNull JSONObject run() throws AlgoliaException {
                 return search(paramsCopy);
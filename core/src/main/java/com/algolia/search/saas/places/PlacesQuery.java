@@ -90,15 +90,11 @@ public class PlacesQuery extends AbstractQuery {
      */
     public @NonNull
     PlacesQuery setAroundLatLng(LatLng location) {
-        if (location == null) {
-            return set(KEY_AROUND_LAT_LNG, null);
-        } else {
-            return set(KEY_AROUND_LAT_LNG, location.lat + "," + location.lng);
-        }
+        return set(KEY_AROUND_LAT_LNG, location);
     }
 
     public LatLng getAroundLatLng() {
-        return LatLng.parse(get(KEY_AROUND_LAT_LNG));
+        return getLatLng(KEY_AROUND_LAT_LNG);
     }
 
     private static final String KEY_AROUND_LAT_LNG_VIA_IP = "aroundLatLngViaIP";
@@ -115,7 +111,7 @@ public class PlacesQuery extends AbstractQuery {
     }
 
     public Boolean getAroundLatLngViaIP() {
-        return parseBoolean(get(KEY_AROUND_LAT_LNG_VIA_IP));
+        return getBoolean(KEY_AROUND_LAT_LNG_VIA_IP);
     }
 
     private static final String KEY_AROUND_RADIUS = "aroundRadius";
@@ -140,11 +136,13 @@ public class PlacesQuery extends AbstractQuery {
      * @return Query.RADIUS_ALL if set to 'all'.
      */
     public Integer getAroundRadius() {
-        final String value = get(KEY_AROUND_RADIUS);
-        if (value != null && value.equals("all")) {
+        final Object value = getValue(KEY_AROUND_RADIUS);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if ("all".equals(value)) {
             return PlacesQuery.RADIUS_ALL;
         }
-        return parseInt(value);
+        return getInt(KEY_AROUND_RADIUS);
     }
 
     private static final String KEY_HIGHLIGHT_POST_TAG = "highlightPostTag";
@@ -180,7 +178,7 @@ public class PlacesQuery extends AbstractQuery {
     }
 
     public Integer getHitsPerPage() {
-        return parseInt(get(KEY_HITS_PER_PAGE));
+        return getInt(KEY_HITS_PER_PAGE);
     }
 
     /**
@@ -292,11 +290,11 @@ public class PlacesQuery extends AbstractQuery {
      * @return This query.
      */
     public @NonNull PlacesQuery setCountries(String... countries) {
-        return set(KEY_COUNTRIES, buildJSONArray(countries));
+        return (PlacesQuery) setArray(KEY_COUNTRIES, countries);
     }
 
     public String[] getCountries() {
-        return parseArray(get(KEY_COUNTRIES));
+        return getArray(KEY_COUNTRIES);
     }
 
     // ----------------------------------------------------------------------
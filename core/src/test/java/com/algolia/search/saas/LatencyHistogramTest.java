@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LatencyHistogram}, on a plain JVM.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void percentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(-1, histogram.snapshot().getP50(), 0);
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i), i % 100 == 0);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(10, snapshot.getErrorCount());
+        // Percentiles are rounded up, within 12.5%.
+        assertEquals(500 * 1.0625, snapshot.getP50(), 500 * 0.0625);
+        assertEquals(900 * 1.0625, snapshot.getP90(), 900 * 0.0625);
+        assertEquals(990 * 1.0625, snapshot.getP99(), 990 * 0.0625);
+        assertEquals(999 * 1.0625, snapshot.getP999(), 999 * 0.0625);
+    }
+
+    @Test
+    public void outOfRangeValues() throws Exception {
+        // Out of range values are clamped.
+        for (long value : new long[] { -1, 0, 1, 7, 8, 9, 1000, 123456789, Long.MAX_VALUE }) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKET_COUNT);
+            if (value >= 0 && index < LatencyHistogram.BUCKET_COUNT - 1) {
+                assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+                assertTrue(value >= LatencyHistogram.bucketUpperBound(index) * 7 / 8);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a load of concurrent asynchronous operations against an index, and reports the throughput and latency
+ * percentiles. Meant to be used against a {@link LocalSearchServer}.
+ */
+public class LoadDriver {
+    /**
+     * An operation to run.
+     */
+    public interface Operation {
+        /**
+         * Start the operation.
+         *
+         * @param index             The index to target.
+         * @param sequenceNumber    Sequence number of this operation within the run.
+         * @param completionHandler The handler to call upon completion.
+         * @return The started request.
+         */
+        @NonNull Request start(@NonNull Index index, int sequenceNumber, @NonNull CompletionHandler completionHandler);
+    }
+
+    /**
+     * Searches, cycling through a given number of distinct queries (so that some of them may hit the search cache).
+     */
+    public static @NonNull Operation searches(final int distinctQueryCount) {
+        return new Operation() {
+            @NonNull
+            @Override
+            public Request start(@NonNull Index index, int sequenceNumber, @NonNull CompletionHandler completionHandler) {
+                return index.searchAsync(new Query("query " + sequenceNumber % distinctQueryCount), completionHandler);
+            }
+        };
+    }
+
+    /**
+     * The outcome of a run.
+     */
+    public static class Report {
+        public final int operationCount;
+        public final int errorCount;
+        /** Total duration of the run (ms). */
+        public final long duration;
+        public final @NonNull LatencySnapshot latencies;
+
+        Report(int operationCount, int errorCount, long duration, @NonNull LatencySnapshot latencies) {
+            this.operationCount = operationCount;
+            this.errorCount = errorCount;
+            this.duration = duration;
+            this.latencies = latencies;
+        }
+
+        /**
+         * @return The number of operations completed per second.
+         */
+        public double getThroughput() {
+            return duration > 0 ? operationCount * 1000.0 / duration : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d operations (%d errors) in %d ms: %.1f ops/s; latency (ms): p50=%.1f, p90=%.1f, p99=%.1f, p999=%.1f",
+                    operationCount, errorCount, duration, getThroughput(), latencies.getP50(), latencies.getP90(), latencies.getP99(), latencies.getP999());
+        }
+    }
+
+    /**
+     * Run operations, keeping at most a given number of them in flight at any time.
+     * The client's completion executor must not be the main thread, which is not looping during tests.
+     *
+     * @param index          The index to target.
+     * @param operation      The operation to run.
+     * @param operationCount Total number of operations to run.
+     * @param concurrency    Maximum number of operations in flight.
+     * @param timeout        Maximum duration of the run (ms).
+     * @return The run's report.
+     * @throws InterruptedException If interrupted while waiting for operations to complete.
+     */
+    public static @NonNull Report run(@NonNull Index index, @NonNull Operation operation, int operationCount, int concurrency, long timeout) throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final Semaphore slots = new Semaphore(concurrency);
+        final CountDownLatch completed = new CountDownLatch(operationCount);
+        final AtomicInteger errorCount = new AtomicInteger();
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < operationCount; ++i) {
+            slots.acquire();
+            final long operationStartTime = System.nanoTime();
+            operation.start(index, i, new CompletionHandler() {
+                @Override
+                public void requestCompleted(JSONObject content, AlgoliaException error) {
+                    histogram.record(System.nanoTime() - operationStartTime, error != null);
+                    if (error != null) {
+                        errorCount.incrementAndGet();
+                    }
+                    slots.release();
+                    completed.countDown();
+                }
+            });
+        }
+        if (!completed.await(timeout, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(String.format("%d operations still in flight after %d ms", completed.getCount(), timeout));
+        }
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        return new Report(operationCount, errorCount.get(), duration, histogram.snapshot());
+    }
+}
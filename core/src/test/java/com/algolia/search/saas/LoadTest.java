@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * End-to-end tests of the client against a {@link LocalSearchServer}, on a plain JVM.
+ */
+public class LoadTest {
+    private static final String HOST1 = "host1.local";
+    private static final String HOST2 = "host2.local";
+    private static final String HOST3 = "host3.local";
+
+    private LocalSearchServer server;
+    private Client client;
+    private Index index;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new LocalSearchServer(HOST1, HOST2, HOST3);
+        client = new Client("LOADTEST", "API_KEY", new String[] { HOST1, HOST2, HOST3 });
+        client.setTransport(server.getTransport());
+        index = client.getIndex("products");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void endpoints() throws Exception {
+        JSONObject content = index.search(new Query("bike").setHitsPerPage(5));
+        assertEquals(5, content.getJSONArray("hits").length());
+        assertEquals("bike", content.getString("query"));
+
+        content = index.multipleQueries(Arrays.asList(new Query("a"), new Query("b")), null);
+        assertEquals(2, content.getJSONArray("results").length());
+
+        content = index.browse(new Query());
+        int pageCount = 1;
+        while (content.has("cursor")) {
+            content = index.browseFrom(content.getString("cursor"));
+            pageCount += 1;
+        }
+        assertEquals(3, pageCount);
+
+        content = index.addObjects(new JSONArray().put(new JSONObject().put("objectID", "1")).put(new JSONObject().put("objectID", "2")));
+        assertEquals(2, content.getJSONArray("objectIDs").length());
+        index.waitTask(content.getString("taskID"));
+
+        index.setSettings(new JSONObject().put("hitsPerPage", 42));
+        assertEquals(42, index.getSettings().getInt("hitsPerPage"));
+        assertEquals(9, server.getRequestCount(HOST1));
+    }
+
+    @Test
+    public void failover() throws Exception {
+        server.getBehavior(HOST1).setDown(true);
+        server.getBehavior(HOST2).setErrors(1, 503);
+        index.search(new Query("bike"));
+        // NOTE: The platform's HTTP stack may silently retry a dropped request.
+        final int host1RequestCount = server.getRequestCount(HOST1);
+        assertTrue(host1RequestCount >= 1);
+        assertEquals(1, server.getRequestCount(HOST2));
+        assertEquals(1, server.getRequestCount(HOST3));
+
+        // The unreachable host is skipped; the failing one is ranked behind the healthy one.
+        index.search(new Query("bike"));
+        assertEquals(host1RequestCount, server.getRequestCount(HOST1));
+        assertEquals(1, server.getRequestCount(HOST2));
+        assertEquals(2, server.getRequestCount(HOST3));
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        client.setSearchTimeout(100);
+        server.getBehavior(HOST1).setLatency(1000);
+        long startTime = System.currentTimeMillis();
+        index.search(new Query("bike"));
+        assertTrue(System.currentTimeMillis() - startTime < 1000);
+        assertEquals(1, server.getRequestCount(HOST2));
+
+        server.getBehavior(HOST2).setLatency(1000);
+        server.getBehavior(HOST3).setLatency(1000);
+        try {
+            index.search(new Query("bike"));
+            fail("The search should have timed out");
+        } catch (AlgoliaException e) {
+            assertTrue(e.isTransient());
+        }
+    }
+
+    @Test
+    public void load() throws Exception {
+        server.getBehavior(HOST1).setLatency(5).setErrors(0.1, 500);
+        server.getBehavior(HOST2).setLatency(5);
+        LoadDriver.Report report = LoadDriver.run(index, LoadDriver.searches(50), 200, 8, 30000);
+        assertEquals(report.toString(), 200, report.operationCount);
+        assertEquals(report.toString(), 0, report.errorCount);
+        assertEquals(report.toString(), 200, report.latencies.getCount());
+        assertTrue(report.toString(), report.latencies.getP50() >= 5);
+        assertTrue(report.toString(), report.latencies.getP50() <= report.latencies.getP99());
+
+        // With the search cache, repeated queries do not hit the network.
+        index.enableSearchCache();
+        report = LoadDriver.run(index, LoadDriver.searches(10), 200, 1, 30000);
+        assertEquals(report.toString(), 0, report.errorCount);
+        assertTrue(report.toString(), report.latencies.getP50() < 5);
+    }
+}
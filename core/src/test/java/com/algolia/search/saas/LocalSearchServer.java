@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2012-2017 Algolia
+ * http://www.algolia.com/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.algolia.search.saas;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An in-process stand-in for the search API, used to test the whole request path (host selection, retries,
+ * timeouts, caching, executors) without any network access.
+ * <p>
+ * Each host is served by its own HTTP server on the loopback interface, so that it can be given its own
+ * {@link HostBehavior behavior}. Requests reach it through the {@link Transport} returned by {@link #getTransport()},
+ * which redirects `https://host/...` URLs to the corresponding server, over plain HTTP but otherwise through the
+ * platform's HTTP stack.
+ * </p>
+ * <p>
+ * The following endpoints are mimicked, with generated content: searches (`/1/indexes/{name}` and
+ * `/1/indexes/{name}/query`), multiple queries (`/1/indexes/{@literal *}/queries`), browsing (`/browse`), batches
+ * (`/batch`), tasks (`/task/{id}`) and settings (`/settings`). Any other endpoint answers with a 404.
+ * </p>
+ */
+public class LocalSearchServer {
+    /** Number of pages returned when browsing an index. */
+    private static final int BROWSE_PAGE_COUNT = 3;
+
+    /**
+     * How a host behaves. May be changed at any time.
+     */
+    public static class HostBehavior {
+        volatile long latency;
+        volatile double errorRate;
+        volatile int errorStatusCode = 500;
+        volatile boolean down;
+
+        /** Number of requests that could have been failed so far. */
+        private final AtomicInteger errorCandidateCount = new AtomicInteger();
+
+        /**
+         * Delay every response.
+         *
+         * @param latency The delay (ms).
+         * @return This instance.
+         */
+        public HostBehavior setLatency(long latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Fail a proportion of the requests with an HTTP error.
+         * Failures are evenly spread, so that runs are reproducible: e.g. with a rate of 0.1, every tenth request
+         * fails.
+         *
+         * @param errorRate       Proportion of requests to fail, between 0 and 1.
+         * @param errorStatusCode HTTP status code of the failed requests.
+         * @return This instance.
+         */
+        public HostBehavior setErrors(double errorRate, int errorStatusCode) {
+            this.errorRate = errorRate;
+            this.errorStatusCode = errorStatusCode;
+            return this;
+        }
+
+        /**
+         * Decide whether to fail the next request, according to the error rate.
+         *
+         * @return true if the request must fail.
+         */
+        boolean nextRequestFails() {
+            final int n = errorCandidateCount.incrementAndGet();
+            return (long) (n * errorRate) > (long) ((n - 1) * errorRate);
+        }
+
+        /**
+         * Make the host unreachable: connections are dropped without any response.
+         *
+         * @param down true to make the host unreachable, false to restore it.
+         * @return This instance.
+         */
+        public HostBehavior setDown(boolean down) {
+            this.down = down;
+            return this;
+        }
+    }
+
+    /** Servers, by host. */
+    private final Map<String, HttpServer> servers = new HashMap<>();
+
+    /** Behaviors, by host. */
+    private final Map<String, HostBehavior> behaviors = new HashMap<>();
+
+    /** Number of requests received, by host. */
+    private final Map<String, AtomicInteger> requestCounts = new HashMap<>();
+
+    /** Settings, by index name. */
+    private final Map<String, JSONObject> settings = new ConcurrentHashMap<>();
+
+    /** Source of task IDs. */
+    private final AtomicInteger nextTaskID = new AtomicInteger();
+
+    /** Source of object IDs, for objects added without one. */
+    private final AtomicInteger nextObjectID = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Start serving some hosts.
+     *
+     * @param hosts The hosts to serve.
+     * @throws IOException If a server cannot be started.
+     */
+    public LocalSearchServer(@NonNull String... hosts) throws IOException {
+        for (final String host : hosts) {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    LocalSearchServer.this.handle(host, exchange);
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+            servers.put(host, server);
+            behaviors.put(host, new HostBehavior());
+            requestCounts.put(host, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Stop serving all hosts.
+     */
+    public void stop() {
+        for (HttpServer server : servers.values()) {
+            server.stop(0);
+        }
+        executor.shutdownNow();
+    }
+
+    public @NonNull HostBehavior getBehavior(@NonNull String host) {
+        return behaviors.get(host);
+    }
+
+    public int getRequestCount(@NonNull String host) {
+        return requestCounts.get(host).get();
+    }
+
+    /**
+     * Get a transport directing requests to this server.
+     *
+     * @return A new transport.
+     */
+    public @NonNull Transport getTransport() {
+        final Transport transport = new HttpURLConnectionTransport();
+        return new Transport() {
+            @NonNull
+            @Override
+            public Connection open(@NonNull URL url, @NonNull String method, int connectTimeout, int readTimeout) throws IOException {
+                final HttpServer server = servers.get(url.getHost());
+                if (server == null) {
+                    throw new UnknownHostException(url.getHost());
+                }
+                URL localURL = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), url.getFile());
+                return transport.open(localURL, method, connectTimeout, readTimeout);
+            }
+        };
+    }
+
+    // ----------------------------------------------------------------------
+    // Request handling
+    // ----------------------------------------------------------------------
+
+    private void handle(@NonNull String host, @NonNull HttpExchange exchange) throws IOException {
+        requestCounts.get(host).incrementAndGet();
+        final HostBehavior behavior = behaviors.get(host);
+        if (behavior.down) {
+            exchange.close();
+            return;
+        }
+        try {
+            final String body = readBody(exchange);
+            if (behavior.latency > 0) {
+                Thread.sleep(behavior.latency);
+            }
+            if (behavior.errorRate > 0 && behavior.nextRequestFails()) {
+                respond(exchange, behavior.errorStatusCode, error("Injected error"));
+                return;
+            }
+            JSONObject response = route(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(), exchange.getRequestURI().getRawQuery(), body);
+            respond(exchange, response != null ? 200 : 404, response != null ? response : error("Not found"));
+        } catch (JSONException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (InterruptedException e) {
+            exchange.close(); // the server is stopping
+        }
+    }
+
+    /**
+     * Compute the response to a request.
+     *
+     * @return The response, or null if the endpoint is unknown.
+     */
+    private @Nullable JSONObject route(@NonNull String method, @NonNull String path, @Nullable String queryString, @NonNull String body) throws JSONException, IOException {
+        final String[] components = path.split("/");
+        // NOTE: The path starts with a slash, hence an empty first component.
+        if (components.length < 4 || !components[1].equals("1") || !components[2].equals("indexes")) {
+            return null;
+        }
+        final String indexName = URLDecoder.decode(components[3], "UTF-8");
+        final String endpoint = components.length > 4 ? components[4] : "";
+        final JSONObject json = body.isEmpty() ? new JSONObject() : new JSONObject(body);
+        if (indexName.equals("*")) {
+            if (endpoint.equals("queries") && method.equals("POST")) {
+                JSONArray requests = json.getJSONArray("requests");
+                JSONArray results = new JSONArray();
+                for (int i = 0; i < requests.length(); ++i) {
+                    JSONObject request = requests.getJSONObject(i);
+                    results.put(search(Query.parse(request.optString("params", ""))).put("index", request.getString("indexName")));
+                }
+                return new JSONObject().put("results", results);
+            }
+            return null;
+        }
+        switch (endpoint) {
+            case "":
+                return method.equals("GET") ? search(Query.parse(queryString != null ? queryString : "")) : null;
+            case "query":
+                return method.equals("POST") ? search(Query.parse(json.optString("params", ""))) : null;
+            case "browse":
+                return browse(method.equals("GET") ? Query.parse(queryString != null ? queryString : "") : Query.parse(json.optString("params", "")));
+            case "batch":
+                if (!method.equals("POST")) {
+                    return null;
+                }
+                JSONArray requests = json.getJSONArray("requests");
+                JSONArray objectIDs = new JSONArray();
+                for (int i = 0; i < requests.length(); ++i) {
+                    JSONObject object = requests.getJSONObject(i).optJSONObject("body");
+                    objectIDs.put(object != null && object.has("objectID") ? object.getString("objectID") : Integer.toString(nextObjectID.incrementAndGet()));
+                }
+                return new JSONObject().put("taskID", nextTaskID.incrementAndGet()).put("objectIDs", objectIDs);
+            case "task":
+                return method.equals("GET") ? new JSONObject().put("status", "published").put("pendingTask", false) : null;
+            case "settings":
+                if (method.equals("GET")) {
+                    final JSONObject indexSettings = settings.get(indexName);
+                    return indexSettings != null ? indexSettings : new JSONObject();
+                } else if (method.equals("PUT")) {
+                    settings.put(indexName, json);
+                    return new JSONObject().put("taskID", nextTaskID.incrementAndGet()).put("updatedAt", "2017-01-01T00:00:00.000Z");
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private @NonNull JSONObject search(@NonNull Query query) throws JSONException {
+        final String queryText = query.getQuery() != null ? query.getQuery() : "";
+        final int hitsPerPage = query.getHitsPerPage() != null ? query.getHitsPerPage() : 20;
+        final int page = query.getPage() != null ? query.getPage() : 0;
+        JSONArray hits = new JSONArray();
+        for (int i = 0; i < hitsPerPage; ++i) {
+            final int rank = page * hitsPerPage + i;
+            hits.put(new JSONObject()
+                    .put("objectID", Integer.toString(rank))
+                    .put("name", queryText + " " + rank)
+                    .put("_highlightResult", new JSONObject().put("name", new JSONObject()
+                            .put("value", "<em>" + queryText + "</em> " + rank)
+                            .put("matchLevel", "full"))));
+        }
+        return new JSONObject()
+                .put("hits", hits)
+                .put("nbHits", 1000)
+                .put("page", page)
+                .put("nbPages", 1000 / hitsPerPage)
+                .put("hitsPerPage", hitsPerPage)
+                .put("processingTimeMS", 1)
+                .put("query", queryText)
+                .put("params", query.build());
+    }
+
+    private @NonNull JSONObject browse(@NonNull Query query) throws JSONException {
+        final String cursor = query.get("cursor");
+        final int page = cursor != null ? Integer.parseInt(cursor) : 0;
+        JSONObject response = search(query.setPage(page));
+        if (page + 1 < BROWSE_PAGE_COUNT) {
+            response.put("cursor", Integer.toString(page + 1));
+        }
+        return response;
+    }
+
+    // ----------------------------------------------------------------------
+    // Utils
+    // ----------------------------------------------------------------------
+
+    private static @NonNull JSONObject error(@Nullable String message) {
+        try {
+            return new JSONObject().put("message", message);
+        } catch (JSONException e) {
+            throw new RuntimeException(e); // should never happen
+        }
+    }
+
+    private static @NonNull String readBody(@NonNull HttpExchange exchange) throws IOException {
+        InputStream stream = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            stream = new GZIPInputStream(stream);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = stream.read(buffer)) != -1) {
+            body.write(buffer, 0, count);
+        }
+        stream.close();
+        return body.toString("UTF-8");
+    }
+
+    private static void respond(@NonNull HttpExchange exchange, int statusCode, @NonNull JSONObject content) throws IOException {
+        final byte[] body = content.toString().getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+    }
+}